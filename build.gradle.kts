@@ -12,8 +12,67 @@ repositories {
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.9.1"))
     testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+tasks.register<JavaExec>("scalingSuite") {
+    group = "verification"
+    description = "Checks that scanning, parsing and printing scale linearly with the input size."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("org.senyou.lox.ScalingSuite")
+    // The tokens, tree and output of the largest input are live at once: about 160 B of heap per input byte.
+    val maxBytes = project.findProperty("maxBytes")?.toString()?.toLong() ?: (4L * 1024 * 1024)
+    val heapMegabytes = maxOf(3L * 1024, maxBytes * 160 / (1024 * 1024) + 512)
+    // Heap is sampled from the pools, which count whole TLABs: small fixed ones keep the samples precise.
+    jvmArgs("-Xms${heapMegabytes}m", "-Xmx${heapMegabytes}m", "-XX:+UseParallelGC", "-XX:+AlwaysPreTouch",
+            "-XX:TLABSize=64k", "-XX:-ResizeTLAB")
+    workingDir = rootDir
+    if (project.hasProperty("maxBytes")) args("--max-bytes=$maxBytes")
+    if (project.hasProperty("record")) args("--record")
+}
+
+tasks.register<JavaExec>("parallelBenchmark") {
+    group = "verification"
+    description = "Measures the speedup of parallel evaluation across core counts."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("org.senyou.lox.ParallelBenchmark")
+    jvmArgs("-Xmx3g")
+    if (project.hasProperty("nodes")) args(project.property("nodes").toString())
+}
+
+tasks.register<JavaExec>("concatBenchmark") {
+    group = "verification"
+    description = "Measures string concatenation chains of growing length."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("org.senyou.lox.ConcatBenchmark")
+    jvmArgs("-Xmx3g")
+}
+
+tasks.register<JavaExec>("budgetBenchmark") {
+    group = "verification"
+    description = "Measures the overhead of execution budgets over unbudgeted runs."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("org.senyou.lox.BudgetBenchmark")
+    jvmArgs("-Xms3g", "-Xmx3g", "-XX:+UseParallelGC", "-XX:+AlwaysPreTouch")
+}
+
+tasks.register<JavaExec>("scanBenchmark") {
+    group = "verification"
+    description = "Measures the scanners' throughput on comment-, string- and indentation-heavy sources."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("org.senyou.lox.ScanBenchmark")
+    jvmArgs("-Xms3g", "-Xmx3g", "-XX:+UseParallelGC", "-XX:+AlwaysPreTouch")
+}
+
+tasks.register<JavaExec>("sharingReport") {
+    group = "verification"
+    description = "Reports how many nodes hash-consing shares when parsing the given files."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("org.senyou.lox.SharingReport")
+    jvmArgs("-Xss1g")
+    if (project.hasProperty("files")) args(project.property("files").toString().split(","))
+}
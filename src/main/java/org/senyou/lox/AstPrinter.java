@@ -2,50 +2,57 @@ package org.senyou.lox;
 
 /**
  * A visitor that prints the AST.
+ * Every node appends to a single builder, so printing is linear in the size of the output.
  */
-public class AstPrinter implements Expr.Visitor<String> {
+public class AstPrinter implements Expr.Visitor<Void> {
+    private final StringBuilder builder = new StringBuilder();
+
     String print(Expr expr) {
-        return expr.accept(this);
+        builder.setLength(0);
+        expr.accept(this);
+        return builder.toString();
     }
 
     @Override
-    public String visitBinaryExpr(Expr.Binary expr) {
-        return parenthesize(expr.operator.lexeme(), expr.left, expr.right);
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        parenthesize(expr.operator.lexeme(), expr.left, expr.right);
+        return null;
     }
 
     @Override
-    public String visitGroupingExpr(Expr.Grouping expr) {
-        return parenthesize("group", expr.expression);
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        parenthesize("group", expr.expression);
+        return null;
     }
 
     @Override
-    public String visitLiteralExpr(Expr.Literal expr) {
-        if(expr.value == null) return "nil";
-        return expr.value.toString();
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        if(expr.value == null) {
+            builder.append("nil");
+        } else {
+            builder.append(expr.value);
+        }
+        return null;
     }
 
     @Override
-    public String visitUnaryExpr(Expr.Unary expr) {
-        return parenthesize(expr.operator.lexeme(), expr.right);
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        parenthesize(expr.operator.lexeme(), expr.right);
+        return null;
     }
 
     /**
      * Parenthesize the expression.
      * @param name
      * @param exprs
-     * @return
      */
-    private String parenthesize(String name, Expr... exprs) {
-        StringBuilder builder = new StringBuilder();
-
+    private void parenthesize(String name, Expr... exprs) {
         builder.append("(").append(name);
         for(Expr expr : exprs) {
             builder.append(" ");
-            builder.append(expr.accept(this));
+            expr.accept(this);
         }
         builder.append(")");
-
-        return builder.toString();
     }
 
 }
@@ -0,0 +1,116 @@
+package org.senyou.lox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.senyou.lox.LexerTables.ACCEPT;
+import static org.senyou.lox.LexerTables.CHAR_CLASSES;
+import static org.senyou.lox.LexerTables.CLASSES;
+import static org.senyou.lox.LexerTables.OTHER_CLASS;
+import static org.senyou.lox.LexerTables.START;
+import static org.senyou.lox.LexerTables.TRANSITIONS;
+
+/**
+ * A table-driven scanner for the Lox programming language, an alternative to {@link Scanner}.
+ * It runs the DFA generated by tool/GenerateLexer in a single loop: look up the class of the character,
+ * look up the next state, and remember the last accepting state, so the longest match wins.
+ * It produces the same tokens and the same errors as the hand-written scanner,
+ * and takes the same steps of an {@link ExecutionContext}. Select it with -Dlox.scanner=dfa.
+ */
+class DfaScanner {
+    private static final TokenType[] types = TokenType.values();
+
+    private final String source;
+    private final ExecutionContext context;
+    private final Diagnostics diagnostics;
+    private final List<Token> tokens = new ArrayList<>();
+    private int line = 1;
+
+    DfaScanner(String source) {
+        this(source, null, Lox::report);
+    }
+
+    /**
+     * Create a scanner that takes a step of the context for every token and reports its errors to the diagnostics.
+     * @param source
+     * @param context the limits of the run, or null for none.
+     * @param diagnostics
+     */
+    DfaScanner(String source, ExecutionContext context, Diagnostics diagnostics) {
+        this.source = source;
+        this.context = context;
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Scan the source code and generate a list of tokens.
+     * @return the tokens.
+     */
+    List<Token> scanTokens() {
+        int length = source.length();
+        int start = 0;
+        while(start < length) {
+            if(context != null) context.step();
+            int state = START;
+            int action = -1;
+            int end = start;
+            int newlines = 0;
+            int acceptedNewlines = 0;
+
+            for(int current = start; current < length; ) {
+                char c = source.charAt(current);
+                state = TRANSITIONS[state * CLASSES + (c < 128 ? CHAR_CLASSES[c] : OTHER_CLASS)];
+                if(state == 0) break;
+                current++;
+                if(c == '\n') newlines++;
+                if(ACCEPT[state] != 0) {
+                    action = ACCEPT[state] - 1;
+                    end = current;
+                    acceptedNewlines = newlines;
+                }
+            }
+
+            if(action < 0) {
+                diagnostics.error(line, "", "Unexpected character.");
+                start++;
+                continue;
+            }
+
+            line += acceptedNewlines;
+            emit(action, start, end);
+            start = end;
+        }
+        tokens.add(new Token(TokenType.EOF, "", null, line));
+        return tokens;
+    }
+
+    /**
+     * Take the action of the rule that matched.
+     * @param action
+     * @param start
+     * @param end
+     */
+    private void emit(int action, int start, int end) {
+        switch(action) {
+            case LexerTables.SKIP:
+                return;
+            case LexerTables.UNTERMINATED_STRING:
+                diagnostics.error(line, "", "Unterminated string.");
+                return;
+            case LexerTables.UNTERMINATED_COMMENT:
+                diagnostics.error(line, "", "Unterminated comment block");
+                return;
+        }
+
+        TokenType type = types[action];
+        String text = source.substring(start, end);
+        Object literal = null;
+        if(type == TokenType.NUMBER) {
+            literal = NumberLiterals.parse(source, start, end);
+        } else if(type == TokenType.STRING) {
+            if(context != null) context.checkStringLength(end - start - 2);
+            literal = source.substring(start + 1, end - 1);
+        }
+        tokens.add(new Token(type, text, literal, line));
+    }
+}
@@ -0,0 +1,9 @@
+package org.senyou.lox;
+
+/**
+ * Receives the errors found while scanning, parsing, checking or evaluating source code.
+ * {@link Lox#report} is the one that prints them to the console.
+ */
+public interface Diagnostics {
+    void error(int line, String where, String message);
+}
@@ -0,0 +1,94 @@
+package org.senyou.lox;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The limits a single run of a script has to stay within, for running untrusted code on shared threads.
+ * Runs are started with {@link Lox#run(String, ExecutionContext, Diagnostics)}.
+ * The scanner, the parser and the interpreter take a step at every token scanned, token consumed
+ * and node evaluated, and fail with an {@link ExecutionLimitError} once the step budget is spent
+ * or the run has been cancelled. Strings, from literals or concatenation, can't grow past a maximum length.
+ * A context is meant for one run at a time, but that run may evaluate on several threads:
+ * the step count is atomic, so parallel workers can't spend more than the budget between them.
+ * Interpreters reserve their steps in blocks and count them down on their own, and the parallel
+ * interpreter reserves a whole tree at once; a parallel run that fails keeps the steps it reserved.
+ */
+public class ExecutionContext {
+    private final long maxStringLength;
+    private final AtomicLong steps;
+    private volatile boolean cancelled = false;
+
+    /**
+     * Create a context.
+     * @param maxSteps the number of tokens and nodes the run may go through.
+     * @param maxStringLength the length of the longest string the run may create.
+     */
+    public ExecutionContext(long maxSteps, long maxStringLength) {
+        this.steps = new AtomicLong(maxSteps);
+        this.maxStringLength = maxStringLength;
+    }
+
+    /**
+     * Ask the run to stop at its next safepoint. This can be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * The number of steps left in the budget.
+     * @return the remaining steps, never negative.
+     */
+    public long remainingSteps() {
+        return Math.max(0, steps.get());
+    }
+
+    /**
+     * Take one step. This is the safepoint, so it has to stay cheap.
+     */
+    void step() {
+        if (steps.decrementAndGet() < 0) throw new ExecutionLimitError("Step budget exhausted.");
+        checkCancelled();
+    }
+
+    /**
+     * Reserve steps for an interpreter to count down by itself, instead of taking them one at a time.
+     * This is where evaluation notices that the run has been cancelled.
+     * @param wanted
+     * @return the number of steps reserved, between one and wanted.
+     */
+    long reserve(long wanted) {
+        checkCancelled();
+        while (true) {
+            long left = steps.get();
+            if (left <= 0) throw new ExecutionLimitError("Step budget exhausted.");
+            long reserved = Math.min(wanted, left);
+            if (steps.compareAndSet(left, left - reserved)) return reserved;
+        }
+    }
+
+    /**
+     * Give back reserved steps that were not taken.
+     * @param unused
+     */
+    void refund(long unused) {
+        steps.addAndGet(unused);
+    }
+
+    /**
+     * Fail if the run has been cancelled.
+     */
+    void checkCancelled() {
+        if (cancelled) throw new ExecutionLimitError("Execution cancelled.");
+    }
+
+    /**
+     * Check that a string about to be created is within the limit.
+     * @param length
+     */
+    void checkStringLength(long length) {
+        if (length > maxStringLength) {
+            throw new ExecutionLimitError("String of " + length + " characters is over the limit of " + maxStringLength + ".");
+        }
+    }
+}
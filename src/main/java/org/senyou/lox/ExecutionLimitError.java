@@ -0,0 +1,12 @@
+package org.senyou.lox;
+
+/**
+ * An error raised when a script goes over one of the limits of its {@link ExecutionContext},
+ * or when its run has been cancelled.
+ * It can be raised while scanning, parsing or evaluating, so it carries no token.
+ */
+public class ExecutionLimitError extends RuntimeException {
+    ExecutionLimitError(String message) {
+        super(message);
+    }
+}
@@ -4,6 +4,11 @@ import java.util.List;
 
 abstract class Expr {
 
+    // Set by TypeInference: the static type of the node, or null before the pass,
+    // and whether the node is arithmetic over numbers only.
+    TypeInference.Type type;
+    boolean numeric;
+
     abstract <R> R accept(Visitor<R> visitor);
 
     interface Visitor<R> {
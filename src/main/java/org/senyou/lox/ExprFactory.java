@@ -0,0 +1,47 @@
+package org.senyou.lox;
+
+/**
+ * A factory the parser uses to build expression nodes.
+ * The default implementation allocates a fresh node for every call.
+ */
+class ExprFactory {
+
+    /**
+     * Create a binary expression.
+     * @param left
+     * @param operator
+     * @param right
+     * @return the binary expression.
+     */
+    Expr binary(Expr left, Token operator, Expr right) {
+        return new Expr.Binary(left, operator, right);
+    }
+
+    /**
+     * Create a grouping expression.
+     * @param expression
+     * @return the grouping expression.
+     */
+    Expr grouping(Expr expression) {
+        return new Expr.Grouping(expression);
+    }
+
+    /**
+     * Create a literal expression.
+     * @param value
+     * @return the literal expression.
+     */
+    Expr literal(Object value) {
+        return new Expr.Literal(value);
+    }
+
+    /**
+     * Create a unary expression.
+     * @param operator
+     * @param right
+     * @return the unary expression.
+     */
+    Expr unary(Token operator, Expr right) {
+        return new Expr.Unary(operator, right);
+    }
+}
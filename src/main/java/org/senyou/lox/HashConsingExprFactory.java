@@ -0,0 +1,124 @@
+package org.senyou.lox;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * An expression factory that shares structurally identical subtrees.
+ * Two nodes are identical when they have the same kind, the same operator type and lexeme,
+ * the same literal value and the same children. Since children are built bottom-up through
+ * this factory, they are already canonical and can be compared by identity.
+ * The result is a DAG rather than a tree: a shared node keeps the operator token (and so the line)
+ * of its first occurrence.
+ */
+class HashConsingExprFactory extends ExprFactory {
+    private final Map<Key, Expr> nodes = new HashMap<>();
+    private int requested = 0;
+
+    /**
+     * The structural identity of a node.
+     * Children are compared by identity, values and operators by equality.
+     */
+    private record Key(Class<?> kind, TokenType operator, String lexeme, Object value, Expr left, Expr right) {
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key other)) return false;
+            return kind == other.kind
+                    && operator == other.operator
+                    && left == other.left
+                    && right == other.right
+                    && Objects.equals(lexeme, other.lexeme)
+                    && sameValue(value, other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = kind.hashCode();
+            hash = 31 * hash + (operator == null ? 0 : operator.hashCode());
+            hash = 31 * hash + (value == null ? 0 : value.hashCode());
+            hash = 31 * hash + System.identityHashCode(left);
+            hash = 31 * hash + System.identityHashCode(right);
+            return hash;
+        }
+
+        /**
+         * Compare two literal values, keeping numbers and strings apart even if they print the same.
+         */
+        private static boolean sameValue(Object a, Object b) {
+            if (a == null) return b == null;
+            return a.getClass() == b.getClass() && a.equals(b);
+        }
+    }
+
+    @Override
+    Expr binary(Expr left, Token operator, Expr right) {
+        return intern(new Key(Expr.Binary.class, operator.type(), operator.lexeme(), null, left, right),
+                () -> new Expr.Binary(left, operator, right));
+    }
+
+    @Override
+    Expr grouping(Expr expression) {
+        return intern(new Key(Expr.Grouping.class, null, null, null, expression, null),
+                () -> new Expr.Grouping(expression));
+    }
+
+    @Override
+    Expr literal(Object value) {
+        return intern(new Key(Expr.Literal.class, null, null, value, null, null),
+                () -> new Expr.Literal(value));
+    }
+
+    @Override
+    Expr unary(Token operator, Expr right) {
+        return intern(new Key(Expr.Unary.class, operator.type(), operator.lexeme(), null, null, right),
+                () -> new Expr.Unary(operator, right));
+    }
+
+    /**
+     * The number of nodes the parser asked for.
+     * @return the number of requested nodes.
+     */
+    int requested() {
+        return requested;
+    }
+
+    /**
+     * The number of distinct nodes actually allocated.
+     * @return the number of distinct nodes.
+     */
+    int distinct() {
+        return nodes.size();
+    }
+
+    /**
+     * The fraction of requested nodes that were served by an existing node.
+     * @return the sharing ratio, between 0 and 1.
+     */
+    double sharingRatio() {
+        return sharingRatio(requested, distinct());
+    }
+
+    /**
+     * The fraction of requested nodes that were served by an existing node, over any number of parses.
+     * @param requested
+     * @param distinct
+     * @return the sharing ratio, between 0 and 1.
+     */
+    static double sharingRatio(long requested, long distinct) {
+        if (requested == 0) return 0;
+        return 1.0 - (double) distinct / requested;
+    }
+
+    /**
+     * Look up a node by its structure, creating it on the first request.
+     * @param key
+     * @param create
+     * @return the canonical node.
+     */
+    private Expr intern(Key key, Supplier<Expr> create) {
+        requested++;
+        return nodes.computeIfAbsent(key, k -> create.get());
+    }
+}
@@ -0,0 +1,282 @@
+package org.senyou.lox;
+
+/**
+ * A tree-walking interpreter that evaluates expressions.
+ */
+class Interpreter implements Expr.Visitor<Object> {
+    // Steps are reserved from the context this many at a time, and counted down here without synchronization.
+    private static final long STEP_BLOCK = 1024;
+    private final ExecutionContext context;
+    // The steps reserved from the context that have not been taken yet.
+    long steps = 0;
+
+    Interpreter() {
+        this(null);
+    }
+
+    /**
+     * Create an interpreter that takes a step of the context for every node it evaluates.
+     * The steps are reserved in blocks, so the context may only notice a cancellation a block later.
+     * @param context the limits of the run, or null for none.
+     */
+    Interpreter(ExecutionContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Evaluate the expression and print its value.
+     * @param expression
+     */
+    void interpret(Expr expression) {
+        try {
+            Object value = evaluateTree(expression);
+            System.out.println(stringify(value));
+        } catch (RuntimeError error) {
+            Lox.runtimeError(error);
+        }
+    }
+
+    /**
+     * Evaluate a whole expression tree.
+     * @param expression
+     * @return the value of the expression.
+     */
+    Object evaluateTree(Expr expression) {
+        try {
+            return evaluate(expression);
+        } finally {
+            // Give back what is left of the last block, so the context knows exactly how many steps were taken.
+            if (context != null && steps > 0) context.refund(steps);
+            steps = 0;
+        }
+    }
+
+    @Override
+    public Object visitLiteralExpr(Expr.Literal expr) {
+        return expr.value;
+    }
+
+    @Override
+    public Object visitGroupingExpr(Expr.Grouping expr) {
+        return evaluate(expr.expression);
+    }
+
+    @Override
+    public Object visitUnaryExpr(Expr.Unary expr) {
+        Object right = evaluate(expr.right);
+        return unary(expr.operator, right);
+    }
+
+    /**
+     * Apply a unary operator to its evaluated operand.
+     * @param operator
+     * @param right
+     * @return the result of the operation.
+     */
+    Object unary(Token operator, Object right) {
+        switch (operator.type()) {
+            case BANG:
+                return !isTruthy(right);
+            case MINUS:
+                checkNumberOperand(operator, right);
+                return -(double) right;
+        }
+
+        // Unreachable.
+        return null;
+    }
+
+    @Override
+    public Object visitBinaryExpr(Expr.Binary expr) {
+        // Subtrees proven numeric by TypeInference are evaluated without type checks or boxing.
+        if (expr.numeric) return arithmetic(expr);
+
+        Object left = evaluate(expr.left);
+        Object right = evaluate(expr.right);
+        return binary(expr.operator, left, right);
+    }
+
+    /**
+     * Apply a binary operator to its evaluated operands.
+     * @param operator
+     * @param left
+     * @param right
+     * @return the result of the operation.
+     */
+    Object binary(Token operator, Object left, Object right) {
+        switch (operator.type()) {
+            case GREATER:
+                checkNumberOperands(operator, left, right);
+                return (double) left > (double) right;
+            case GREATER_EQUAL:
+                checkNumberOperands(operator, left, right);
+                return (double) left >= (double) right;
+            case LESS:
+                checkNumberOperands(operator, left, right);
+                return (double) left < (double) right;
+            case LESS_EQUAL:
+                checkNumberOperands(operator, left, right);
+                return (double) left <= (double) right;
+            case BANG_EQUAL:
+                return !isEqual(left, right);
+            case EQUAL_EQUAL:
+                return isEqual(left, right);
+            case MINUS:
+                checkNumberOperands(operator, left, right);
+                return (double) left - (double) right;
+            case PLUS:
+                if (left instanceof Double && right instanceof Double) {
+                    return (double) left + (double) right;
+                }
+                if (LoxString.isString(left) && LoxString.isString(right)) {
+                    if (context != null) {
+                        context.checkStringLength((long) ((CharSequence) left).length() + ((CharSequence) right).length());
+                    }
+                    Object text = LoxString.concat(left, right);
+                    if (text == null) throw new RuntimeError(operator, "String is too long.");
+                    return text;
+                }
+                throw new RuntimeError(operator, "Operands must be two numbers or two strings.");
+            case SLASH:
+                checkNumberOperands(operator, left, right);
+                return (double) left / (double) right;
+            case STAR:
+                checkNumberOperands(operator, left, right);
+                return (double) left * (double) right;
+        }
+
+        // Unreachable.
+        return null;
+    }
+
+    /**
+     * Evaluate a subexpression.
+     * @param expr
+     * @return the value of the subexpression.
+     */
+    Object evaluate(Expr expr) {
+        step();
+        return expr.accept(this);
+    }
+
+    /**
+     * Take the step of evaluating one node, if the run has limits.
+     * This is the safepoint, so it has to stay cheap: a plain decrement until the block is spent.
+     */
+    void step() {
+        if (context != null && --steps < 0) steps = reserve(STEP_BLOCK) - 1;
+    }
+
+    /**
+     * Reserve more steps once the reserved ones are spent.
+     * @param wanted
+     * @return the number of steps reserved, at least one.
+     * @throws ExecutionLimitError if the budget is spent or the run has been cancelled.
+     */
+    long reserve(long wanted) {
+        return context.reserve(wanted);
+    }
+
+    /**
+     * Evaluate a proven numeric subtree: only number literals, groupings, negations and arithmetic.
+     * @param expr
+     * @return the value of the subtree.
+     */
+    private double evaluateNumber(Expr expr) {
+        step();
+
+        if (expr instanceof Expr.Literal literal) return (double) literal.value;
+        if (expr instanceof Expr.Grouping grouping) return evaluateNumber(grouping.expression);
+        if (expr instanceof Expr.Unary unary) return -evaluateNumber(unary.right);
+        return arithmetic((Expr.Binary) expr);
+    }
+
+    /**
+     * Apply a numeric binary operator to its operands, unboxed.
+     * The node itself has already taken its step.
+     * @param expr
+     * @return the value of the operation.
+     */
+    private double arithmetic(Expr.Binary expr) {
+        double left = evaluateNumber(expr.left);
+        double right = evaluateNumber(expr.right);
+        switch (expr.operator.type()) {
+            case PLUS: return left + right;
+            case MINUS: return left - right;
+            case STAR: return left * right;
+            case SLASH: return left / right;
+        }
+
+        // Unreachable.
+        throw new IllegalStateException("Not a numeric operator: " + expr.operator);
+    }
+
+    /**
+     * Below are the helper methods for the interpreter.
+     */
+
+    /**
+     * false and nil are falsey, everything else is truthy.
+     * @param object
+     * @return true if the object is truthy, false otherwise.
+     */
+    private boolean isTruthy(Object object) {
+        if (object == null) return false;
+        if (object instanceof Boolean) return (boolean) object;
+        return true;
+    }
+
+    /**
+     * Check if two values are equal. Lox never considers values of different types equal.
+     * A string may be a {@link String} or a concatenated {@link LoxString}, so strings are compared by content.
+     * @param a
+     * @param b
+     * @return true if the values are equal, false otherwise.
+     */
+    private boolean isEqual(Object a, Object b) {
+        if (a == null && b == null) return true;
+        if (a == null) return false;
+        if (LoxString.isString(a) && LoxString.isString(b)) return a.toString().equals(b.toString());
+        return a.equals(b);
+    }
+
+    /**
+     * Check that the operand of a unary operator is a number.
+     * @param operator
+     * @param operand
+     */
+    private void checkNumberOperand(Token operator, Object operand) {
+        if (operand instanceof Double) return;
+        throw new RuntimeError(operator, "Operand must be a number.");
+    }
+
+    /**
+     * Check that both operands of a binary operator are numbers.
+     * @param operator
+     * @param left
+     * @param right
+     */
+    private void checkNumberOperands(Token operator, Object left, Object right) {
+        if (left instanceof Double && right instanceof Double) return;
+        throw new RuntimeError(operator, "Operands must be numbers.");
+    }
+
+    /**
+     * Convert a value to its Lox representation.
+     * @param object
+     * @return the string representation of the value.
+     */
+    String stringify(Object object) {
+        if (object == null) return "nil";
+
+        if (object instanceof Double) {
+            String text = object.toString();
+            if (text.endsWith(".0")) {
+                text = text.substring(0, text.length() - 2);
+            }
+            return text;
+        }
+
+        return object.toString();
+    }
+}
@@ -0,0 +1,257 @@
+package org.senyou.lox;
+
+/**
+ * The transition tables of the DFA lexer, generated by tool/GenerateLexer. Do not edit.
+ * 92 states, 38 character classes.
+ */
+final class LexerTables {
+    private LexerTables() {}
+
+    // Actions past the token types.
+    static final int SKIP = 39;
+    static final int UNTERMINATED_STRING = 40;
+    static final int UNTERMINATED_COMMENT = 41;
+
+    /** State 0 is the dead state, the scan of a token starts in state 1. */
+    static final int START = 1;
+    static final int CLASSES = 38;
+    /** The class of every character past ASCII. */
+    static final int OTHER_CLASS = 0;
+
+    /** The class of each ASCII character. */
+    static final char[] CHAR_CLASSES = ("\000\000\000\000\000\000\000\000\000\001\002\000\000\001\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\001\003\004\000\000\000\000\000\005\006\007\010\011\012\013\014" +
+            "\015\015\015\015\015\015\015\015\015\015\000\016\017\020\021\000" +
+            "\000\022\022\022\022\022\022\022\022\022\022\022\022\022\022\022" +
+            "\022\022\022\022\022\022\022\022\022\022\022\000\000\000\000\022" +
+            "\000\023\022\024\025\026\027\022\030\031\022\022\032\022\033\034" +
+            "\035\022\036\037\040\041\042\043\022\022\022\044\000\045\000\000").toCharArray();
+    /** The next state, at state * CLASSES + class. */
+    static final char[] TRANSITIONS = ("\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\002\003\004\005\006\007\010\011\012" +
+            "\013\014\015\016\017\020\021\022\023\024\025\023\026\027\023\030" +
+            "\023\031\032\033\034\035\036\023\037\040\041\042\000\002\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\043\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\005\005" +
+            "\005\005\044\005\005\005\005\005\005\005\005\005\005\005\005\005" +
+            "\005\005\005\005\005\005\005\005\005\005\005\005\005\005\005\005" +
+            "\005\005\005\005\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\045\000\000\000\000\046\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\047" +
+            "\000\016\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\050\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\051\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\052\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\023" +
+            "\000\000\000\000\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\023\023\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\023\000\000\000\000\023\023\023\023\023\023" +
+            "\023\023\023\053\023\023\023\023\023\023\023\023\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\023\000\000\000\000" +
+            "\023\023\023\023\023\023\023\023\054\023\023\023\023\023\023\023" +
+            "\023\023\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\023\000\000\000\000\023\023\023\023\023\023\023\023\055\023" +
+            "\023\023\023\023\023\023\023\023\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\023\000\000\000\000\023\056\023\023" +
+            "\023\023\023\023\023\023\057\023\023\023\023\060\023\023\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\023\000\000" +
+            "\000\000\023\023\023\023\023\061\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\023\000\000\000\000\023\023\023\023\023\023\023\062" +
+            "\023\023\023\023\023\023\023\023\023\023\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\023\000\000\000\000\023\023" +
+            "\023\023\023\023\023\023\023\023\023\023\063\023\023\023\023\023" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\023" +
+            "\000\000\000\000\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\064\023\023\023\023\023\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\023\000\000\000\000\023\023\023\023\065\023" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\023\000\000\000\000" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023\066" +
+            "\023\023\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\023\000\000\000\000\023\023\023\023\023\023\067\023\023\023" +
+            "\023\023\070\023\023\023\023\023\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\023\000\000\000\000\023\071\023\023" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\023\023\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\023\000\000" +
+            "\000\000\023\023\023\023\023\023\072\023\023\023\023\023\023\023" +
+            "\023\023\023\023\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\045\045" +
+            "\045\045\045\045\045\073\045\045\045\045\045\045\045\045\045\045" +
+            "\045\045\045\045\045\045\045\045\045\045\045\045\045\045\045\045" +
+            "\045\045\045\045\046\046\000\046\046\046\046\046\046\046\046\046" +
+            "\046\046\046\046\046\046\046\046\046\046\046\046\046\046\046\046" +
+            "\046\046\046\046\046\046\046\046\046\046\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\074\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\023" +
+            "\000\000\000\000\023\023\023\075\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\023\023\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\023\000\000\000\000\023\076\023\023\023\023" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\023\000\000\000\000" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\023\077\023\023" +
+            "\023\023\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\023\000\000\000\000\023\023\023\023\023\023\023\023\100\023" +
+            "\023\023\023\023\023\023\023\023\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\023\000\000\000\000\023\023\023\023" +
+            "\023\023\023\023\023\023\023\023\101\023\023\023\023\023\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\023\000\000" +
+            "\000\000\023\023\023\023\023\023\023\023\023\102\023\023\023\023" +
+            "\023\023\023\023\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\023\000\000\000\000\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\023\023\023\023\023\023\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\023\000\000\000\000\023\023" +
+            "\023\023\023\023\023\023\103\023\023\023\023\023\023\023\023\023" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\023" +
+            "\000\000\000\000\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\023\023\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\023\000\000\000\000\023\023\023\023\023\023" +
+            "\023\104\023\023\023\023\023\023\023\023\023\023\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\023\000\000\000\000" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\023\023\105\023" +
+            "\023\023\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\023\000\000\000\000\023\023\023\023\023\023\023\023\023\023" +
+            "\023\106\023\023\023\023\023\023\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\023\000\000\000\000\023\023\023\023" +
+            "\023\023\023\107\023\023\023\023\023\023\023\023\023\023\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\023\000\000" +
+            "\000\000\023\023\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\023\110\023\023\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\023\000\000\000\000\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\111\023\023\023\023\023\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\023\000\000\000\000\023\023" +
+            "\023\023\023\023\023\112\023\023\023\023\023\023\023\023\023\023" +
+            "\000\000\045\045\045\045\045\045\045\073\045\045\045\045\113\045" +
+            "\045\045\045\045\045\045\045\045\045\045\045\045\045\045\045\045" +
+            "\045\045\045\045\045\045\045\045\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\074\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\023\000\000\000\000" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\023\023\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\023\000\000\000\000\023\023\023\023\023\023\023\023\023\023" +
+            "\023\023\023\114\023\023\023\023\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\023\000\000\000\000\023\023\023\023" +
+            "\115\023\023\023\023\023\023\023\023\023\023\023\023\023\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\023\000\000" +
+            "\000\000\023\023\023\023\023\023\023\023\023\023\023\023\023\116" +
+            "\023\023\023\023\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\023\000\000\000\000\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\023\023\023\023\023\023\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\023\000\000\000\000\023\023" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\023" +
+            "\000\000\000\000\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\023\023\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\023\000\000\000\000\023\023\023\023\023\023" +
+            "\023\023\023\117\023\023\023\023\023\023\023\023\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\023\000\000\000\000" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023\120" +
+            "\023\023\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\023\000\000\000\000\023\023\023\023\121\023\023\023\023\023" +
+            "\023\023\023\023\023\023\023\023\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\023\000\000\000\000\023\023\023\023" +
+            "\023\023\023\023\023\023\023\023\023\122\023\023\023\023\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\023\000\000" +
+            "\000\000\023\023\023\023\123\023\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\023\000\000\000\000\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\023\023\023\023\023\023\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\023\000\000\000\000\023\023" +
+            "\023\023\023\023\023\023\124\023\023\023\023\023\023\023\023\023" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\023\000\000\000\000\023\023\023\023\023\023" +
+            "\023\023\023\023\023\023\023\125\023\023\023\023\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\023\000\000\000\000" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\023\023\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\023\000\000\000\000\023\023\023\023\126\023\023\023\023\023" +
+            "\023\023\023\023\023\023\023\023\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\023\000\000\000\000\023\023\023\023" +
+            "\023\023\023\023\023\023\023\023\023\023\127\023\023\023\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\023\000\000" +
+            "\000\000\023\023\023\023\023\023\023\023\023\023\023\023\130\023" +
+            "\023\023\023\023\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\023\000\000\000\000\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\131\023\023\023\023\023\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\023\000\000\000\000\023\023" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\023" +
+            "\000\000\000\000\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\023\023\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\023\000\000\000\000\023\023\023\023\132\023" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\023\000\000\000\000" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\023\023\000\000\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\023\000\000\000\000\023\023\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\023\023\023\023\000\000\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\023\000\000\000\000\023\023\023\023" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\023\023\000\000" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\023\000\000" +
+            "\000\000\023\023\023\023\023\023\023\023\023\133\023\023\023\023" +
+            "\023\023\023\023\000\000\000\000\000\000\000\000\000\000\000\000" +
+            "\000\000\000\023\000\000\000\000\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\023\023\023\023\023\023\000\000\000\000\000\000" +
+            "\000\000\000\000\000\000\000\000\000\023\000\000\000\000\023\023" +
+            "\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\000\000\000\000\000\000\000\000\000\000\000\000\000\000\000\023" +
+            "\000\000\000\000\023\023\023\023\023\023\023\023\023\023\023\023" +
+            "\023\023\023\023\023\023\000\000").toCharArray();
+    /** The action of each state plus one, or zero if the state does not accept. */
+    static final char[] ACCEPT = ("\000\000\050\050\014\051\001\002\013\010\005\007\006\012\026\011" +
+            "\022\016\020\024\024\024\024\024\024\024\024\024\024\024\024\024" +
+            "\024\003\004\015\025\052\050\000\023\017\021\024\024\024\024\024" +
+            "\024\035\024\037\024\024\024\024\024\024\024\052\026\027\024\024" +
+            "\024\034\033\036\024\024\024\024\024\045\024\050\024\031\024\024" +
+            "\024\024\043\044\024\030\032\040\024\042\046\041").toCharArray();
+}
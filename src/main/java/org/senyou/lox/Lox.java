@@ -6,14 +6,28 @@ import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 
 /**
  * The main class for the Lox programming language.
  */
 public class Lox {
+    // The table-driven scanner is selected with -Dlox.scanner=dfa.
+    private static final boolean dfaScanner = "dfa".equals(System.getProperty("lox.scanner"));
+    // The fork/join interpreter is selected with -Dlox.interpreter=parallel.
+    private static final boolean parallelInterpreter = "parallel".equals(System.getProperty("lox.interpreter"));
+    // Static type inference is enabled with -Dlox.infer=true.
+    private static final boolean inferTypes = Boolean.getBoolean("lox.infer");
+    // The parser shares identical subtrees with -Dlox.factory=hashcons.
+    private static final boolean hashConsing = "hashcons".equals(System.getProperty("lox.factory"));
+    // Subtrees of fewer nodes are not worth a fork/join task.
+    private static final long PARALLEL_THRESHOLD = 4096;
+    private static final Interpreter interpreter = interpreter(null);
     static boolean hadError = false;
+    static boolean hadRuntimeError = false;
 
     /**
      * Generate an error message.
@@ -21,7 +35,7 @@ public class Lox {
      * @param where
      * @param message
      */
-    private static void report(int line, String where, String message) {
+    static void report(int line, String where, String message) {
         System.err.println("[line " + line + "] Error" + where + ": " + message);
         hadError = true;
     }
@@ -48,6 +62,15 @@ public class Lox {
         }
     }
 
+    /**
+     * Report an error raised while evaluating the code.
+     * @param error
+     */
+    static void runtimeError(RuntimeError error) {
+        System.err.println(error.getMessage() + "\n[line " + error.token.line() + "]");
+        hadRuntimeError = true;
+    }
+
     /**
      * Read and execute the source code from the given path.
      * @param path
@@ -57,6 +80,35 @@ public class Lox {
         byte[] bytes = Files.readAllBytes(Paths.get(path));
         run(new String(bytes, Charset.defaultCharset()));
         if(hadError) System.exit(65);
+        if(hadRuntimeError) System.exit(70);
+    }
+
+    /**
+     * Check that the given files are syntactically valid without running them.
+     * @param paths
+     * @throws IOException
+     */
+    private static void checkFiles(String[] paths) throws IOException {
+        SyntaxChecker checker = new SyntaxChecker(Lox::report);
+        for(String path : paths) {
+            byte[] bytes = Files.readAllBytes(Paths.get(path));
+            if(!checker.check(new String(bytes, Charset.defaultCharset()))) {
+                System.err.println(path + ": invalid");
+            }
+        }
+        if(hadError) System.exit(65);
+    }
+
+    /**
+     * Evaluate every line of the standard input, as a stream filter.
+     * @param workers
+     * @throws IOException
+     */
+    private static void runPipe(int workers) throws IOException {
+        PipeMode pipe = new PipeMode(workers);
+        pipe.run(System.in, System.out, System.err);
+        if(pipe.hadError) System.exit(65);
+        if(pipe.hadRuntimeError) System.exit(70);
     }
 
     /**
@@ -78,24 +130,119 @@ public class Lox {
     }
 
     /**
-     * Scan the source code and transform it into tokens.
+     * Create the selected interpreter.
+     * @param context the limits of the run, or null for none.
+     * @return the interpreter.
+     */
+    private static Interpreter interpreter(ExecutionContext context) {
+        if(parallelInterpreter) return new ParallelInterpreter(ForkJoinPool.commonPool(), PARALLEL_THRESHOLD, context);
+        return new Interpreter(context);
+    }
+
+    /**
+     * Scan the source code with the selected scanner.
+     * @param source
+     * @return the tokens.
+     */
+    static List<Token> scan(String source) {
+        return scan(source, null, Lox::report);
+    }
+
+    /**
+     * Scan the source code with the selected scanner, within the limits of a context.
+     * @param source
+     * @param context the limits of the run, or null for none.
+     * @param diagnostics
+     * @return the tokens.
+     */
+    static List<Token> scan(String source, ExecutionContext context, Diagnostics diagnostics) {
+        if(dfaScanner) return new DfaScanner(source, context, diagnostics).scanTokens();
+        return new Scanner(source, context, diagnostics).scanTokens();
+    }
+
+    /**
+     * Create the selected expression factory. A hash-consing factory is meant for a single parse,
+     * so every source gets a fresh one. A shared node keeps the line of its first occurrence,
+     * and so do the errors reported at it.
+     * @return the factory.
+     */
+    static ExprFactory factory() {
+        if(hashConsing) return new HashConsingExprFactory();
+        return new ExprFactory();
+    }
+
+    /**
+     * Infer the types of the expression, if inference is enabled. It reports the operations that can only fail
+     * and lets the interpreter evaluate numeric subtrees unboxed, but it walks the whole tree once more:
+     * that only pays off when a tree is evaluated more than once, which jlox never does.
+     * Without it, the same operations fail when they are evaluated.
+     * @param expression
+     * @param diagnostics
+     */
+    static void infer(Expr expression, Diagnostics diagnostics) {
+        if(inferTypes) new TypeInference(diagnostics).infer(expression);
+    }
+
+    /**
+     * Scan, parse and evaluate the source code.
      * @param source
      */
     private static void run(String source) {
-        Scanner scanner = new Scanner(source);
-        List<Token> tokens = scanner.scanTokens();
-        Parser parser = new Parser(tokens);
+        List<Token> tokens = scan(source);
+        Parser parser = new Parser(tokens, factory());
         Expr expression = parser.parse();
 
         // Stop if there was a syntax error.
         if(hadError) return;
 
-        System.out.println(new AstPrinter().print(expression));
+        infer(expression, Lox::report);
+
+        // Stop if an operation can only fail.
+        if(hadError) return;
+
+        interpreter.interpret(expression);
+    }
+
+    /**
+     * Scan, parse and evaluate the source code within the limits of a context, for running untrusted code.
+     * Errors go to the diagnostics instead of the console, runtime errors with an empty location,
+     * and the global error state is left alone, so runs can go on at the same time on different threads.
+     * @param source
+     * @param context the limits of the run.
+     * @param diagnostics
+     * @return the value of the expression as Lox prints it, or null if there was an error.
+     * @throws ExecutionLimitError if the run goes over a limit of the context or is cancelled.
+     */
+    public static String run(String source, ExecutionContext context, Diagnostics diagnostics) {
+        boolean[] failed = {false};
+        Diagnostics reporter = (line, where, message) -> {
+            failed[0] = true;
+            diagnostics.error(line, where, message);
+        };
+
+        Expr expression = new Parser(scan(source, context, reporter), factory(), context, reporter).parse();
+        if(failed[0]) return null;
+        infer(expression, reporter);
+        if(failed[0]) return null;
+
+        Interpreter interpreter = interpreter(context);
+        try {
+            return interpreter.stringify(interpreter.evaluateTree(expression));
+        } catch (RuntimeError error) {
+            diagnostics.error(error.token.line(), "", error.getMessage());
+            return null;
+        }
     }
 
     public static void main(String[] args) throws IOException {
-        if(args.length > 1) {
-            System.out.println("Usage: jlox [script]");
+        if(args.length > 1 && args[0].equals("--check")) {
+            checkFiles(Arrays.copyOfRange(args, 1, args.length));
+        } else if(args.length == 1 && args[0].equals("--pipe")) {
+            runPipe(1);
+        } else if(args.length == 2 && args[0].equals("--pipe") && args[1].matches("[1-9][0-9]{0,3}")) {
+            runPipe(Integer.parseInt(args[1]));
+        } else if(args.length > 1 || (args.length == 1 && args[0].startsWith("--"))) {
+            System.out.println("Usage: jlox [script] | jlox --check <script>... | jlox --pipe [workers]");
             // https://man.freebsd.org/cgi/man.cgi?query=sysexits&apropos=0&sektion=0&manpath=FreeBSD+4.3-RELEASE&format=html#:~:text=EX_USAGE%20(64)%09%20%20%20The%20command%20was%20used%20incorrectly%2C%20e.g.%2C%20with%20the%0A%09%09%09%20%20%20wrong%20number%20of%20arguments%2C%20a%20bad%20flag%2C%20a%20bad%20syntax%0A%09%09%09%20%20%20in%20a%20parameter%2C%20or%20whatever.
             System.exit(64);
         } else if(args.length == 1) {
@@ -0,0 +1,107 @@
+package org.senyou.lox;
+
+import java.util.ArrayDeque;
+
+/**
+ * A Lox string built by concatenation.
+ * Concatenating only links the two operands together, so a chain of n concatenations costs O(n)
+ * instead of copying every intermediate string. The characters are copied once, the first time
+ * the string is printed, compared or hashed.
+ * The operands are either {@link String}s or other {@code LoxString}s.
+ */
+final class LoxString implements CharSequence {
+    private final Object left;
+    private final Object right;
+    private final int length;
+    private volatile String flat;
+
+    private LoxString(Object left, Object right, int length) {
+        this.left = left;
+        this.right = right;
+        this.length = length;
+    }
+
+    /**
+     * Check if a value is a Lox string.
+     * @param value
+     * @return true if the value is a string, false otherwise.
+     */
+    static boolean isString(Object value) {
+        return value instanceof String || value instanceof LoxString;
+    }
+
+    /**
+     * Concatenate two Lox strings.
+     * @param left
+     * @param right
+     * @return the concatenation, or null if it would be too long to be a Java string.
+     */
+    static Object concat(Object left, Object right) {
+        long length = (long) ((CharSequence) left).length() + ((CharSequence) right).length();
+        if (length > Integer.MAX_VALUE - 8) return null;
+        return new LoxString(left, right, (int) length);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        String text = flat;
+        if (text == null) {
+            text = flatten();
+            flat = text;
+        }
+        return text;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LoxString other)) return false;
+        return length == other.length && toString().equals(other.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    /**
+     * Copy the characters of the rope, left to right.
+     * Chains built by the parser are deep, so this walks the rope with an explicit stack.
+     * @return the flat string.
+     */
+    private String flatten() {
+        StringBuilder builder = new StringBuilder(length);
+        ArrayDeque<Object> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            Object piece = pending.pop();
+            if (piece instanceof LoxString rope) {
+                String text = rope.flat;
+                if (text != null) {
+                    builder.append(text);
+                } else {
+                    pending.push(rope.right);
+                    pending.push(rope.left);
+                }
+            } else {
+                builder.append((String) piece);
+            }
+        }
+        return builder.toString();
+    }
+}
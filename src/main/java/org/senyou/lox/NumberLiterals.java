@@ -0,0 +1,56 @@
+package org.senyou.lox;
+
+/**
+ * Parse number literals in place, straight from the source.
+ * Most literals are small integers or short decimals, which are computed exactly from their digits
+ * without a substring: an integer up to 2^53 is exact as a double, and so is a power of ten up to 10^22,
+ * so dividing one by the other is correctly rounded (Clinger's fast path). Anything longer falls back
+ * to {@link Double#parseDouble}. Either way the result is bit for bit what parseDouble gives.
+ * Small integers come from a shared cache, so repeated constants share one Double.
+ */
+final class NumberLiterals {
+    private static final int CACHE_SIZE = 1024;
+    private static final Double[] cache = new Double[CACHE_SIZE];
+    private static final long MAX_EXACT = 1L << 53;
+    private static final double[] powersOfTen = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    static {
+        for(int i = 0; i < CACHE_SIZE; i++) cache[i] = (double) i;
+    }
+
+    private NumberLiterals() {}
+
+    /**
+     * Parse the literal between start and end: digits, optionally followed by a dot and more digits.
+     * @param source
+     * @param start
+     * @param end
+     * @return the value of the literal.
+     */
+    static Double parse(String source, int start, int end) {
+        long mantissa = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for(int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if(c == '.') {
+                fraction = true;
+                continue;
+            }
+            mantissa = mantissa * 10 + (c - '0');
+            if(fraction) fractionDigits++;
+            // Too many digits to be exact: let the JDK round it.
+            if(mantissa > MAX_EXACT) return Double.parseDouble(source.substring(start, end));
+        }
+
+        if(fractionDigits == 0) {
+            if(mantissa < CACHE_SIZE) return cache[(int) mantissa];
+            return (double) mantissa;
+        }
+        if(fractionDigits < powersOfTen.length) return mantissa / powersOfTen[fractionDigits];
+        return Double.parseDouble(source.substring(start, end));
+    }
+}
@@ -0,0 +1,272 @@
+package org.senyou.lox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * An interpreter that evaluates large independent subtrees in parallel.
+ * Expressions have no side effects, so both operands of a binary expression can be evaluated at the same time.
+ * When both operands are at least {@code threshold} nodes large, the right one is forked as a task
+ * while the current thread evaluates the left one. Everything else is left to a sequential interpreter.
+ * Results are the same as sequential evaluation, and so are errors: when both sides fail,
+ * the error of the left side wins, as it would have been raised first.
+ * Under a step budget, the steps of the whole tree are reserved when evaluation starts, and every task
+ * gets the steps sequential evaluation would have had left when it got to the subtree. A task runs out
+ * exactly where sequential evaluation would have, whatever the other tasks have done by then.
+ * Select it with -Dlox.interpreter=parallel.
+ */
+class ParallelInterpreter extends Interpreter {
+    private final ForkJoinPool pool;
+    private final long threshold;
+    private final ExecutionContext context;
+    private Expr analyzed;
+    private Forks forks;
+
+    /**
+     * The sequential interpreter of a task. Its steps come out of an allowance that was already
+     * reserved from the context, in blocks, so that cancellation is still noticed.
+     */
+    private class Task extends Interpreter {
+        private final long limit;
+        private long allowance;
+
+        /**
+         * @param limit the steps the task may take.
+         */
+        Task(long limit) {
+            super(context);
+            this.limit = limit;
+            this.allowance = limit;
+        }
+
+        @Override
+        long reserve(long wanted) {
+            context.checkCancelled();
+            if (allowance <= 0) throw new ExecutionLimitError("Step budget exhausted.");
+            long reserved = Math.min(wanted, allowance);
+            allowance -= reserved;
+            return reserved;
+        }
+
+        /**
+         * The steps the task may still take.
+         * @return the remaining steps.
+         */
+        long remaining() {
+            return Math.max(0, steps) + allowance;
+        }
+
+        /**
+         * Count the steps another task took in the place of this one.
+         * @param taken
+         */
+        void take(long taken) {
+            steps -= taken;
+            if (steps < 0) {
+                allowance += steps;
+                steps = 0;
+            }
+        }
+    }
+
+    /**
+     * Evaluate a subtree as a fork/join task, with a sequential interpreter of its own.
+     * A runtime or limit error is kept rather than thrown, so it reaches the joining thread untouched.
+     */
+    private class Subtree extends RecursiveTask<Object> {
+        private final Expr expression;
+        private final Task task;
+        private RuntimeException error;
+
+        /**
+         * @param expression
+         * @param limit the steps the subtree may take.
+         */
+        Subtree(Expr expression, long limit) {
+            this.expression = expression;
+            this.task = new Task(limit);
+        }
+
+        @Override
+        protected Object compute() {
+            try {
+                return walk(expression, task);
+            } catch (RuntimeError | ExecutionLimitError error) {
+                this.error = error;
+                return null;
+            }
+        }
+
+        /**
+         * The steps the subtree took.
+         * @return the number of steps.
+         */
+        long taken() {
+            return task.limit - task.remaining();
+        }
+
+        /**
+         * Wait for the subtree and return its value, rethrowing its error if it failed.
+         * @return the value of the subtree.
+         */
+        Object value() {
+            Object value = join();
+            if (error != null) throw error;
+            return value;
+        }
+    }
+
+    ParallelInterpreter(ForkJoinPool pool, long threshold) {
+        this(pool, threshold, null);
+    }
+
+    /**
+     * Create a parallel interpreter whose tasks all share the limits of the context.
+     * @param pool
+     * @param threshold
+     * @param context the limits of the run, or null for none.
+     */
+    ParallelInterpreter(ForkJoinPool pool, long threshold, ExecutionContext context) {
+        super(context);
+        this.pool = pool;
+        this.threshold = threshold;
+        this.context = context;
+    }
+
+    @Override
+    Object evaluateTree(Expr expression) {
+        // The forks are found once per tree and reused when the same tree is evaluated again.
+        if (expression != analyzed) {
+            forks = new Forks(threshold).of(expression);
+            analyzed = expression;
+        }
+        // A tree without a single fork, like the left-leaning chains the parser builds, is not worth a task.
+        if (!forks.spine.contains(expression)) return super.evaluateTree(expression);
+
+        // The tree can't take more steps than it has nodes, and it takes them all if it succeeds.
+        long budget = context == null ? 0 : context.reserve(forks.size);
+        Subtree root = new Subtree(expression, budget);
+        pool.invoke(root);
+        return root.value();
+    }
+
+    /**
+     * Evaluate a node on the way to a fork, taking a step for it like {@link Interpreter#evaluate} does.
+     * Subtrees without any fork are evaluated by the task's sequential interpreter, with no lookups.
+     * @param expr
+     * @param task the sequential interpreter of the current task.
+     * @return the value of the node.
+     */
+    private Object walk(Expr expr, Task task) {
+        if (!forks.spine.contains(expr)) return task.evaluate(expr);
+
+        task.step();
+        if (expr instanceof Expr.Grouping grouping) return walk(grouping.expression, task);
+        if (expr instanceof Expr.Unary unary) return task.unary(unary.operator, walk(unary.right, task));
+
+        Expr.Binary binary = (Expr.Binary) expr;
+        Long leftSize = forks.forks.get(binary);
+        if (leftSize == null) {
+            Object left = walk(binary.left, task);
+            Object right = walk(binary.right, task);
+            return task.binary(binary.operator, left, right);
+        }
+
+        // Sequential evaluation gets to the right side with the steps the left side leaves, if it succeeds.
+        Subtree right = new Subtree(binary.right, Math.max(0, task.remaining() - leftSize));
+        right.fork();
+        Object left;
+        try {
+            left = walk(binary.left, task);
+        } catch (RuntimeException error) {
+            // The right side may fail too, but sequential evaluation would never have got there.
+            right.cancel(false);
+            throw error;
+        }
+        Object value = right.value();
+        task.take(right.taken());
+        return task.binary(binary.operator, left, value);
+    }
+
+    /**
+     * Find the nodes to fork at, once, before evaluation starts: the binary expressions whose operands
+     * are both at least {@code threshold} nodes large, with the size of their left operand. The spine is the forks and every node above one;
+     * it is all evaluation has to look up, everything off the spine is evaluated sequentially.
+     * Nothing is recorded for the other nodes. A shared node of a hash-consed tree is counted
+     * every time it occurs, which costs no more than evaluating it there.
+     */
+    private static class Forks {
+        private final long threshold;
+        long size;
+        final Map<Expr, Long> forks = new IdentityHashMap<>();
+        final Set<Expr> spine = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        Forks(long threshold) {
+            this.threshold = threshold;
+        }
+
+        /**
+         * Count the nodes of every subtree, recording the forks and the spine.
+         * This runs in a loop rather than by recursion, so that the long chains the parser builds
+         * are counted by compiled code early on instead of through hundreds of thousands of interpreted frames.
+         * @param expression
+         * @return the forks of the expression.
+         */
+        Forks of(Expr expression) {
+            // Every node before its operands, the left one before the right one.
+            List<Expr> order = new ArrayList<>();
+            ArrayDeque<Expr> pending = new ArrayDeque<>();
+            pending.push(expression);
+            while (!pending.isEmpty()) {
+                Expr expr = pending.pop();
+                order.add(expr);
+                if (expr instanceof Expr.Binary binary) {
+                    pending.push(binary.right);
+                    pending.push(binary.left);
+                } else if (expr instanceof Expr.Grouping grouping) {
+                    pending.push(grouping.expression);
+                } else if (expr instanceof Expr.Unary unary) {
+                    pending.push(unary.right);
+                }
+            }
+
+            // Backwards, every operand is done before its node: the sizes and spines of the operands
+            // waiting for their node are on a stack, the left one on top.
+            long[] sizes = new long[order.size()];
+            boolean[] spines = new boolean[order.size()];
+            int top = 0;
+            for (int i = order.size() - 1; i >= 0; i--) {
+                Expr expr = order.get(i);
+                long size = 1;
+                boolean onSpine = false;
+                if (expr instanceof Expr.Binary) {
+                    long left = sizes[--top];
+                    onSpine = spines[top];
+                    long right = sizes[--top];
+                    onSpine |= spines[top];
+                    if (left >= threshold && right >= threshold) {
+                        forks.put(expr, left);
+                        onSpine = true;
+                    }
+                    size += left + right;
+                } else if (!(expr instanceof Expr.Literal)) {
+                    size += sizes[--top];
+                    onSpine = spines[top];
+                }
+                if (onSpine) spine.add(expr);
+                sizes[top] = size;
+                spines[top] = onSpine;
+                top++;
+            }
+            size = sizes[0];
+            return this;
+        }
+    }
+}
@@ -8,13 +8,49 @@ import java.util.List;
  */
 public class Parser {
     private final List<Token> tokens;
+    private final ExprFactory factory;
+    private final ExecutionContext context;
+    private final Diagnostics diagnostics;
     private int current = 0;
 
     /** A ParseError class. */
     private static class ParseError extends RuntimeException {}
 
     public Parser(List<Token> tokens) {
+        this(tokens, new ExprFactory());
+    }
+
+    /**
+     * Create a parser that builds its nodes through the given factory.
+     * @param tokens
+     * @param factory
+     */
+    Parser(List<Token> tokens, ExprFactory factory) {
+        this(tokens, factory, null);
+    }
+
+    /**
+     * Create a parser that takes a step of the context for every token it consumes.
+     * @param tokens
+     * @param factory
+     * @param context the limits of the run, or null for none.
+     */
+    Parser(List<Token> tokens, ExprFactory factory, ExecutionContext context) {
+        this(tokens, factory, context, Lox::report);
+    }
+
+    /**
+     * Create a parser that reports its errors to the given diagnostics instead of the console.
+     * @param tokens
+     * @param factory
+     * @param context the limits of the run, or null for none.
+     * @param diagnostics
+     */
+    Parser(List<Token> tokens, ExprFactory factory, ExecutionContext context, Diagnostics diagnostics) {
         this.tokens = tokens;
+        this.factory = factory;
+        this.context = context;
+        this.diagnostics = diagnostics;
     }
 
     /**
@@ -47,7 +83,7 @@ public class Parser {
         while(match(TokenType.BANG_EQUAL, TokenType.EQUAL_EQUAL)) {
             Token operator = previous();
             Expr right = comparison();
-            expr = new Expr.Binary(expr, operator, right);
+            expr = factory.binary(expr, operator, right);
         }
 
         return expr;
@@ -62,7 +98,7 @@ public class Parser {
         while(match(TokenType.GREATER, TokenType.GREATER_EQUAL, TokenType.LESS, TokenType.LESS_EQUAL)) {
             Token operator = previous();
             Expr right = term();
-            expr = new Expr.Binary(expr, operator, right);
+            expr = factory.binary(expr, operator, right);
         }
         return expr;
     }
@@ -76,7 +112,7 @@ public class Parser {
         while (match(TokenType.MINUS, TokenType.PLUS)) {
             Token operator = previous();
             Expr right = factor();
-            expr = new Expr.Binary(expr, operator, right);
+            expr = factory.binary(expr, operator, right);
         }
         return expr;
     }
@@ -90,7 +126,7 @@ public class Parser {
         while (match(TokenType.SLASH, TokenType.STAR)) {
             Token operator = previous();
             Expr right = unary();
-            expr = new Expr.Binary(expr, operator, right);
+            expr = factory.binary(expr, operator, right);
         }
         return expr;
     }
@@ -103,7 +139,7 @@ public class Parser {
         if (match(TokenType.BANG, TokenType.MINUS)) {
             Token operator = previous();
             Expr right = unary();
-            return new Expr.Unary(operator, right);
+            return factory.unary(operator, right);
         }
         return primary();
     }
@@ -113,18 +149,18 @@ public class Parser {
      * @return
      */
     private Expr primary() {
-        if (match(TokenType.FALSE)) return new Expr.Literal(false);
-        if (match(TokenType.TRUE)) return new Expr.Literal(true);
-        if (match(TokenType.NIL)) return new Expr.Literal(null);
+        if (match(TokenType.FALSE)) return factory.literal(false);
+        if (match(TokenType.TRUE)) return factory.literal(true);
+        if (match(TokenType.NIL)) return factory.literal(null);
 
         if (match(TokenType.NUMBER, TokenType.STRING)) {
-            return new Expr.Literal(previous().literal());
+            return factory.literal(previous().literal());
         }
 
         if (match(TokenType.LEFT_PAREN)) {
             Expr expr = expression();
             consume(TokenType.RIGHT_PAREN, "Expect ')' after expression.");
-            return new Expr.Grouping(expr);
+            return factory.grouping(expr);
         }
 
         throw error(peek(), "Expect expression.");
@@ -167,6 +203,7 @@ public class Parser {
      * @return the current token.
      */
     private Token advance() {
+        if (context != null) context.step();
         if(!isAtEnd()) current++;
         return previous();
     }
@@ -214,7 +251,11 @@ public class Parser {
      * @return a ParseError.
      */
     private ParseError error(Token token, String message) {
-        Lox.error(token, message);
+        if (token.type() == TokenType.EOF) {
+            diagnostics.error(token.line(), " at end", message);
+        } else {
+            diagnostics.error(token.line(), " at '" + token.lexeme() + "'", message);
+        }
         return new ParseError();
     }
 
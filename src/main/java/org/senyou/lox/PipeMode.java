@@ -0,0 +1,163 @@
+package org.senyou.lox;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluate one expression per input line, as a stream filter: {@code cat exprs.txt | jlox --pipe}.
+ * Unlike the prompt, it reads the input in large chunks, evaluates lines in batches,
+ * optionally on a pool of workers, and writes the results in input order through buffered streams.
+ * Every line is evaluated on its own, as in the prompt, but errors report the line number in the input.
+ * A line that fails prints an empty line, so the Nth output line is always the result of the Nth input line;
+ * its error, on the error stream, tells it apart from an empty string.
+ * The global error state of {@link Lox} is never touched, so batches can run in parallel;
+ * errors are collected per batch and recorded in {@link #hadError} and {@link #hadRuntimeError} instead.
+ */
+class PipeMode {
+    private static final int BATCH_LINES = 4096;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /** The output of a batch of lines, in order, and whether any of them failed. */
+    private record Batch(String out, String err, boolean hadError, boolean hadRuntimeError) {}
+
+    private final int workers;
+    boolean hadError = false;
+    boolean hadRuntimeError = false;
+
+    PipeMode(int workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * Evaluate every line of the input and report the throughput at the end.
+     * @param in
+     * @param out
+     * @param err
+     * @throws IOException
+     */
+    void run(InputStream in, OutputStream out, OutputStream err) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()), BUFFER_SIZE);
+        Writer results = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()), BUFFER_SIZE);
+        Writer errors = new BufferedWriter(new OutputStreamWriter(err, Charset.defaultCharset()), BUFFER_SIZE);
+
+        long start = System.nanoTime();
+        long lines = workers > 1 ? runParallel(reader, results, errors) : runSequential(reader, results, errors);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        results.flush();
+        errors.write(String.format("%,d lines in %.3f s (%,.0f lines/s)%n", lines, seconds, lines / seconds));
+        errors.flush();
+    }
+
+    private long runSequential(BufferedReader reader, Writer results, Writer errors) throws IOException {
+        long lines = 0;
+        List<String> batch;
+        while (!(batch = readBatch(reader)).isEmpty()) {
+            write(evaluate(batch, lines + 1), results, errors);
+            lines += batch.size();
+        }
+        return lines;
+    }
+
+    /**
+     * Hand batches to the workers, keeping a bounded number in flight, and write them back in input order.
+     */
+    private long runParallel(BufferedReader reader, Writer results, Writer errors) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        ArrayDeque<Future<Batch>> inFlight = new ArrayDeque<>();
+        long lines = 0;
+        try {
+            List<String> batch;
+            while (!(batch = readBatch(reader)).isEmpty()) {
+                List<String> lineBatch = batch;
+                long firstLine = lines + 1;
+                inFlight.add(pool.submit(() -> evaluate(lineBatch, firstLine)));
+                lines += batch.size();
+                if (inFlight.size() >= 2 * workers) write(await(inFlight.remove()), results, errors);
+            }
+            while (!inFlight.isEmpty()) write(await(inFlight.remove()), results, errors);
+        } finally {
+            pool.shutdownNow();
+        }
+        return lines;
+    }
+
+    private List<String> readBatch(BufferedReader reader) throws IOException {
+        List<String> batch = new ArrayList<>(BATCH_LINES);
+        String line;
+        while (batch.size() < BATCH_LINES && (line = reader.readLine()) != null) batch.add(line);
+        return batch;
+    }
+
+    private Batch await(Future<Batch> batch) throws IOException {
+        try {
+            return batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void write(Batch batch, Writer results, Writer errors) throws IOException {
+        results.write(batch.out);
+        errors.write(batch.err);
+        hadError |= batch.hadError;
+        hadRuntimeError |= batch.hadRuntimeError;
+    }
+
+    /**
+     * Evaluate a batch of lines with its own diagnostics and interpreter.
+     * @param lines
+     * @param firstLine the line number of the first line in the input.
+     * @return the output of the batch.
+     */
+    private static Batch evaluate(List<String> lines, long firstLine) {
+        StringBuilder out = new StringBuilder();
+        StringBuilder err = new StringBuilder();
+        long[] lineNumber = {firstLine};
+        boolean[] failed = {false};
+        Diagnostics diagnostics = (line, where, message) -> {
+            err.append("[line ").append(lineNumber[0] + line - 1).append("] Error").append(where)
+                    .append(": ").append(message).append('\n');
+            failed[0] = true;
+        };
+        Interpreter interpreter = new Interpreter();
+        boolean hadError = false;
+        boolean hadRuntimeError = false;
+
+        for (String line : lines) {
+            failed[0] = false;
+            Expr expression = new Parser(Lox.scan(line, null, diagnostics), Lox.factory(), null, diagnostics).parse();
+            if (!failed[0]) Lox.infer(expression, diagnostics);
+            if (!failed[0]) {
+                try {
+                    out.append(interpreter.stringify(interpreter.evaluateTree(expression)));
+                } catch (RuntimeError error) {
+                    err.append(error.getMessage()).append("\n[line ")
+                            .append(lineNumber[0] + error.token.line() - 1).append("]\n");
+                    hadRuntimeError = true;
+                }
+            }
+            out.append('\n');
+            hadError |= failed[0];
+            lineNumber[0]++;
+        }
+        return new Batch(out.toString(), err.toString(), hadError, hadRuntimeError);
+    }
+}
@@ -0,0 +1,14 @@
+package org.senyou.lox;
+
+/**
+ * An error raised while evaluating an expression.
+ * It carries the token that caused it, so we can report the line.
+ */
+class RuntimeError extends RuntimeException {
+    final Token token;
+
+    RuntimeError(Token token, String message) {
+        super(message);
+        this.token = token;
+    }
+}
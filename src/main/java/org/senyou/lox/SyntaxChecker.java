@@ -0,0 +1,332 @@
+package org.senyou.lox;
+
+/**
+ * A recognizer that checks whether source code is syntactically valid without building anything.
+ * It runs the same lexical rules as {@link Scanner} and the same grammar as {@link Parser},
+ * but keeps only the current token as a type and a range of the source: there is no token list,
+ * no lexeme and no syntax tree. Nothing is allocated per file unless an error has to be reported.
+ * The diagnostics are the same, and in the same order, as scanning then parsing the source.
+ */
+public class SyntaxChecker {
+
+    /** Unwind the recognizer after the first syntax error, like the parser does. */
+    private static class ParseError extends RuntimeException {
+        ParseError() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final ParseError PARSE_ERROR = new ParseError();
+
+    private static final String[] keywords = {
+        "and", "class", "else", "false", "for", "fun", "if", "nil",
+        "or", "print", "return", "super", "this", "true", "var", "while"
+    };
+    private static final TokenType[] keywordTypes = {
+        TokenType.AND, TokenType.CLASS, TokenType.ELSE, TokenType.FALSE, TokenType.FOR, TokenType.FUN,
+        TokenType.IF, TokenType.NIL, TokenType.OR, TokenType.PRINT, TokenType.RETURN, TokenType.SUPER,
+        TokenType.THIS, TokenType.TRUE, TokenType.VAR, TokenType.WHILE
+    };
+
+    private final Diagnostics diagnostics;
+    private String source;
+    private boolean reportScanErrors;
+    private int errors;
+
+    // The scanner state.
+    private int current;
+    private int line;
+
+    // The current token.
+    private TokenType type;
+    private int tokenStart;
+    private int tokenEnd;
+    private int tokenLine;
+
+    public SyntaxChecker(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Check the source code. A checker can be reused for any number of sources.
+     * @param source
+     * @return true if the source is valid, false if any error was reported.
+     */
+    public boolean check(String source) {
+        this.source = source;
+        errors = 0;
+
+        // The scanner runs to the end of the source before the parser starts, so report all of its errors first.
+        reset(true);
+        do {
+            nextToken();
+        } while (type != TokenType.EOF);
+
+        reset(false);
+        nextToken();
+        try {
+            expression();
+        } catch (ParseError error) {
+            // Already reported.
+        }
+
+        this.source = null;
+        return errors == 0;
+    }
+
+    private void reset(boolean reportScanErrors) {
+        this.reportScanErrors = reportScanErrors;
+        current = 0;
+        line = 1;
+    }
+
+    /**
+     * Below is the grammar, the same as the parser's.
+     */
+
+    private void expression() {
+        equality();
+    }
+
+    private void equality() {
+        comparison();
+        while (match(TokenType.BANG_EQUAL, TokenType.EQUAL_EQUAL)) {
+            comparison();
+        }
+    }
+
+    private void comparison() {
+        term();
+        while (match(TokenType.GREATER, TokenType.GREATER_EQUAL, TokenType.LESS, TokenType.LESS_EQUAL)) {
+            term();
+        }
+    }
+
+    private void term() {
+        factor();
+        while (match(TokenType.MINUS, TokenType.PLUS)) {
+            factor();
+        }
+    }
+
+    private void factor() {
+        unary();
+        while (match(TokenType.SLASH, TokenType.STAR)) {
+            unary();
+        }
+    }
+
+    private void unary() {
+        if (match(TokenType.BANG, TokenType.MINUS)) {
+            unary();
+            return;
+        }
+        primary();
+    }
+
+    private void primary() {
+        if (match(TokenType.FALSE, TokenType.TRUE, TokenType.NIL)) return;
+        if (match(TokenType.NUMBER, TokenType.STRING)) return;
+
+        if (match(TokenType.LEFT_PAREN)) {
+            expression();
+            consume(TokenType.RIGHT_PAREN, "Expect ')' after expression.");
+            return;
+        }
+
+        throw error("Expect expression.");
+    }
+
+    /**
+     * Below are the parser helpers. Unlike the parser's, they take at most three types so no array is created.
+     */
+
+    private boolean match(TokenType a) {
+        return match(a, a, a, a);
+    }
+
+    private boolean match(TokenType a, TokenType b) {
+        return match(a, b, b, b);
+    }
+
+    private boolean match(TokenType a, TokenType b, TokenType c) {
+        return match(a, b, c, c);
+    }
+
+    private boolean match(TokenType a, TokenType b, TokenType c, TokenType d) {
+        if (type == TokenType.EOF) return false;
+        if (type == a || type == b || type == c || type == d) {
+            nextToken();
+            return true;
+        }
+        return false;
+    }
+
+    private void consume(TokenType expected, String message) {
+        if (!match(expected)) throw error(message);
+    }
+
+    /**
+     * Report an error at the current token.
+     * @param message
+     * @return the error to throw.
+     */
+    private ParseError error(String message) {
+        if (type == TokenType.EOF) {
+            report(tokenLine, " at end", message);
+        } else {
+            report(tokenLine, " at '" + source.substring(tokenStart, tokenEnd) + "'", message);
+        }
+        return PARSE_ERROR;
+    }
+
+    private void report(int line, String where, String message) {
+        errors++;
+        diagnostics.error(line, where, message);
+    }
+
+    /**
+     * Below is the scanner, which produces one token at a time.
+     */
+
+    /**
+     * Scan the next token into the current token fields.
+     */
+    private void nextToken() {
+        while (current < source.length()) {
+            tokenStart = current;
+            TokenType scanned = scanToken();
+            if (scanned != null) {
+                type = scanned;
+                tokenEnd = current;
+                tokenLine = line;
+                return;
+            }
+        }
+        type = TokenType.EOF;
+        tokenStart = tokenEnd = current;
+        tokenLine = line;
+    }
+
+    /**
+     * Scan one lexeme.
+     * @return the type of the token, or null if the lexeme produces no token.
+     */
+    private TokenType scanToken() {
+        char c = source.charAt(current++);
+        switch (c) {
+            case '(': return TokenType.LEFT_PAREN;
+            case ')': return TokenType.RIGHT_PAREN;
+            case '{': return TokenType.LEFT_BRACE;
+            case '}': return TokenType.RIGHT_BRACE;
+            case ',': return TokenType.COMMA;
+            case '.': return TokenType.DOT;
+            case '-': return TokenType.MINUS;
+            case '+': return TokenType.PLUS;
+            case ';': return TokenType.SEMICOLON;
+            case '*': return TokenType.STAR;
+            case '!': return match('=') ? TokenType.BANG_EQUAL : TokenType.BANG;
+            case '=': return match('=') ? TokenType.EQUAL_EQUAL : TokenType.EQUAL;
+            case '<': return match('=') ? TokenType.LESS_EQUAL : TokenType.LESS;
+            case '>': return match('=') ? TokenType.GREATER_EQUAL : TokenType.GREATER;
+            case '/':
+                if (match('/')) {
+                    while (peek() != '\n' && current < source.length()) current++;
+                    return null;
+                }
+                if (match('*')) {
+                    blockComment();
+                    return null;
+                }
+                return TokenType.SLASH;
+            case ' ':
+            case '\r':
+            case '\t':
+                return null;
+            case '\n':
+                line++;
+                return null;
+            case '"':
+                return string();
+            default:
+                if (isDigit(c)) return number();
+                if (isAlpha(c)) return identifier();
+                scanError("Unexpected character.");
+                return null;
+        }
+    }
+
+    private void blockComment() {
+        while (!(peek() == '*' && peekNext() == '/') && current < source.length()) {
+            if (peek() == '\n') line++;
+            current++;
+        }
+        if (current >= source.length()) {
+            scanError("Unterminated comment block");
+            return;
+        }
+        current += 2;
+    }
+
+    private TokenType string() {
+        while (peek() != '"' && current < source.length()) {
+            if (peek() == '\n') line++;
+            current++;
+        }
+        if (current >= source.length()) {
+            scanError("Unterminated string.");
+            return null;
+        }
+        current++;
+        return TokenType.STRING;
+    }
+
+    private TokenType number() {
+        while (isDigit(peek())) current++;
+        if (peek() == '.' && isDigit(peekNext())) {
+            current++;
+            while (isDigit(peek())) current++;
+        }
+        return TokenType.NUMBER;
+    }
+
+    private TokenType identifier() {
+        while (isAlpha(peek()) || isDigit(peek())) current++;
+        int length = current - tokenStart;
+        for (int i = 0; i < keywords.length; i++) {
+            String keyword = keywords[i];
+            if (keyword.length() == length && source.regionMatches(tokenStart, keyword, 0, length)) {
+                return keywordTypes[i];
+            }
+        }
+        return TokenType.IDENTIFIER;
+    }
+
+    private void scanError(String message) {
+        if (reportScanErrors) report(line, "", message);
+    }
+
+    private boolean match(char expected) {
+        if (current >= source.length() || source.charAt(current) != expected) return false;
+        current++;
+        return true;
+    }
+
+    private char peek() {
+        if (current >= source.length()) return '\0';
+        return source.charAt(current);
+    }
+
+    private char peekNext() {
+        if (current + 1 >= source.length()) return '\0';
+        return source.charAt(current + 1);
+    }
+
+    private boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private boolean isAlpha(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+}
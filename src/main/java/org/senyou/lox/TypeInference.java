@@ -0,0 +1,191 @@
+package org.senyou.lox;
+
+/**
+ * A pass that infers the static type of every node of an expression before it runs.
+ * The type of a node is the type of its value whenever its evaluation succeeds: {@code -x} is a number
+ * even if x is unknown, since it is either a number or an error.
+ * A node is numeric when it is arithmetic over numeric operands only; it can't fail,
+ * so it can be evaluated with unchecked, unboxed arithmetic.
+ * Operators whose operands are known to have the wrong types are reported as errors, since they always fail.
+ * The results are stored on the nodes themselves, in {@link Expr#type} and {@link Expr#numeric}.
+ * The pass is only worth its walk when a tree is evaluated more than once; jlox runs it with -Dlox.infer=true.
+ */
+class TypeInference implements Expr.Visitor<TypeInference.Type> {
+
+    /** The static types, from most to least precise. */
+    enum Type {
+        NUMBER, STRING, BOOL, NIL, UNKNOWN
+    }
+
+    private final Diagnostics diagnostics;
+
+    TypeInference() {
+        this(Lox::report);
+    }
+
+    /**
+     * Create a pass that reports its errors to the given diagnostics instead of the console.
+     * @param diagnostics
+     */
+    TypeInference(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Infer the types of the expression and all of its subexpressions.
+     * @param expression
+     */
+    void infer(Expr expression) {
+        typeOf(expression);
+    }
+
+    /**
+     * Get the type of a node, inferring it if needed.
+     * Shared nodes of a hash-consed tree are only inferred, and reported, once.
+     * @param expr
+     * @return the type of the node.
+     */
+    Type typeOf(Expr expr) {
+        if (expr.type == null) expr.type = expr.accept(this);
+        return expr.type;
+    }
+
+    @Override
+    public Type visitLiteralExpr(Expr.Literal expr) {
+        if (expr.value instanceof Double) {
+            expr.numeric = true;
+            return Type.NUMBER;
+        }
+        if (expr.value instanceof String) return Type.STRING;
+        if (expr.value instanceof Boolean) return Type.BOOL;
+        return Type.NIL;
+    }
+
+    @Override
+    public Type visitGroupingExpr(Expr.Grouping expr) {
+        Type type = typeOf(expr.expression);
+        if (expr.expression.numeric) expr.numeric = true;
+        return type;
+    }
+
+    @Override
+    public Type visitUnaryExpr(Expr.Unary expr) {
+        Type right = typeOf(expr.right);
+
+        switch (expr.operator.type()) {
+            case BANG:
+                return Type.BOOL;
+            case MINUS:
+                if (isKnownNot(right, Type.NUMBER)) {
+                    error(expr.operator, "Operand must be a number.");
+                }
+                if (expr.right.numeric) expr.numeric = true;
+                return Type.NUMBER;
+        }
+
+        // Unreachable.
+        return Type.UNKNOWN;
+    }
+
+    @Override
+    public Type visitBinaryExpr(Expr.Binary expr) {
+        Type left = typeOf(expr.left);
+        Type right = typeOf(expr.right);
+
+        switch (expr.operator.type()) {
+            case GREATER:
+            case GREATER_EQUAL:
+            case LESS:
+            case LESS_EQUAL:
+                checkNumberOperands(expr.operator, left, right);
+                return Type.BOOL;
+            case BANG_EQUAL:
+            case EQUAL_EQUAL:
+                return Type.BOOL;
+            case MINUS:
+            case SLASH:
+            case STAR:
+                checkNumberOperands(expr.operator, left, right);
+                markNumeric(expr);
+                return Type.NUMBER;
+            case PLUS:
+                return plus(expr, left, right);
+        }
+
+        // Unreachable.
+        return Type.UNKNOWN;
+    }
+
+    /**
+     * Infer the type of an addition, which adds two numbers or concatenates two strings.
+     * One known operand decides what the other one has to be.
+     * @param expr
+     * @param left
+     * @param right
+     * @return the type of the addition.
+     */
+    private Type plus(Expr.Binary expr, Type left, Type right) {
+        Type type = Type.UNKNOWN;
+        if (left == Type.NUMBER || left == Type.STRING) {
+            type = left;
+        } else if (right == Type.NUMBER || right == Type.STRING) {
+            type = right;
+        }
+
+        boolean fails = (left == Type.BOOL || left == Type.NIL || right == Type.BOOL || right == Type.NIL)
+                || (type != Type.UNKNOWN && (isKnownNot(left, type) || isKnownNot(right, type)));
+        if (fails) {
+            error(expr.operator, "Operands must be two numbers or two strings.");
+        }
+
+        if (type == Type.NUMBER) markNumeric(expr);
+        return type;
+    }
+
+    /**
+     * Below are the helper methods for the pass.
+     */
+
+    /**
+     * Mark an arithmetic node as numeric if both of its operands are.
+     * @param expr
+     */
+    private void markNumeric(Expr.Binary expr) {
+        if (expr.left.numeric && expr.right.numeric) expr.numeric = true;
+    }
+
+    /**
+     * Report comparisons and arithmetic on operands that are known not to be numbers.
+     * @param operator
+     * @param left
+     * @param right
+     */
+    private void checkNumberOperands(Token operator, Type left, Type right) {
+        if (isKnownNot(left, Type.NUMBER) || isKnownNot(right, Type.NUMBER)) {
+            error(operator, "Operands must be numbers.");
+        }
+    }
+
+    /**
+     * Report an error at the given token.
+     * @param token
+     * @param message
+     */
+    private void error(Token token, String message) {
+        if (token.type() == TokenType.EOF) {
+            diagnostics.error(token.line(), " at end", message);
+        } else {
+            diagnostics.error(token.line(), " at '" + token.lexeme() + "'", message);
+        }
+    }
+
+    /**
+     * Check if a type is known and different from the expected one.
+     * @param type
+     * @param expected
+     * @return true if the type can never be the expected one, false otherwise.
+     */
+    private boolean isKnownNot(Type type, Type expected) {
+        return type != Type.UNKNOWN && type != expected;
+    }
+}
@@ -55,6 +55,15 @@ public class GenerateAst {
         writer.println();
         writer.println("abstract class " + baseName + " {");
 
+        // The annotations of the static type pass
+        if(baseName.equals("Expr")) {
+            writer.println();
+            writer.println("    // Set by TypeInference: the static type of the node, or null before the pass,");
+            writer.println("    // and whether the node is arithmetic over numbers only.");
+            writer.println("    TypeInference.Type type;");
+            writer.println("    boolean numeric;");
+        }
+
         // The base accept() method
         writer.println();
         writer.println("    abstract <R> R accept(Visitor<R> visitor);");
@@ -0,0 +1,493 @@
+package org.senyou.lox.tool;
+
+import org.senyou.lox.TokenType;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generate the transition tables of a table-driven lexer for the Lox programming language.
+ * Every token type gets a pattern, then the patterns are compiled into one DFA:
+ * regular expression -> NFA (Thompson's construction) -> DFA (subset construction) -> minimal DFA (Moore's algorithm).
+ * Characters are grouped into classes that no pattern tells apart, so a row of the table has one
+ * entry per class rather than per character. All characters past ASCII fall in the same class.
+ * The tables are written to LexerTables.java and read by DfaScanner.
+ */
+public class GenerateLexer {
+    /** The ASCII characters, plus one symbol standing for every other character. */
+    private static final int SYMBOLS = 129;
+    private static final int OTHER = 128;
+
+    /**
+     * A lexer rule: a pattern and the action taken when it matches.
+     * When two rules match the same text, the first one wins.
+     */
+    private record Rule(String pattern, String action) {}
+
+    /** The actions that are not a token type. */
+    private static final List<String> SPECIAL_ACTIONS = List.of("SKIP", "UNTERMINATED_STRING", "UNTERMINATED_COMMENT");
+
+    public static void main(String[] args) throws FileNotFoundException, UnsupportedEncodingException {
+        if(args.length != 1) {
+            System.err.println("Usage: generate_lexer <output directory>");
+            System.exit(64);
+        }
+        String outputDir = args[0];
+        defineLexer(outputDir, "LexerTables", rules());
+    }
+
+    /**
+     * Derive the rules from the token types. Every token type but EOF needs a pattern.
+     * @return the rules, by priority.
+     */
+    private static List<Rule> rules() {
+        Map<TokenType, String> patterns = new HashMap<>();
+        patterns.put(TokenType.LEFT_PAREN, "\\(");
+        patterns.put(TokenType.RIGHT_PAREN, "\\)");
+        patterns.put(TokenType.LEFT_BRACE, "{");
+        patterns.put(TokenType.RIGHT_BRACE, "}");
+        patterns.put(TokenType.COMMA, ",");
+        patterns.put(TokenType.DOT, "\\.");
+        patterns.put(TokenType.MINUS, "-");
+        patterns.put(TokenType.PLUS, "\\+");
+        patterns.put(TokenType.SEMICOLON, ";");
+        patterns.put(TokenType.SLASH, "/");
+        patterns.put(TokenType.STAR, "\\*");
+        patterns.put(TokenType.BANG, "!");
+        patterns.put(TokenType.BANG_EQUAL, "!=");
+        patterns.put(TokenType.EQUAL, "=");
+        patterns.put(TokenType.EQUAL_EQUAL, "==");
+        patterns.put(TokenType.GREATER, ">");
+        patterns.put(TokenType.GREATER_EQUAL, ">=");
+        patterns.put(TokenType.LESS, "<");
+        patterns.put(TokenType.LESS_EQUAL, "<=");
+        patterns.put(TokenType.IDENTIFIER, "[a-zA-Z_][a-zA-Z_0-9]*");
+        patterns.put(TokenType.STRING, "\"[^\"]*\"");
+        patterns.put(TokenType.NUMBER, "[0-9]+(\\.[0-9]+)?");
+
+        List<Rule> rules = new ArrayList<>();
+        List<Rule> lastRules = new ArrayList<>();
+        for(TokenType type : TokenType.values()) {
+            if(type == TokenType.EOF) continue;
+            if(type.compareTo(TokenType.AND) >= 0) {
+                // Keywords are spelled like their names, and win over identifiers.
+                rules.add(new Rule(type.name().toLowerCase(), type.name()));
+            } else if(type == TokenType.IDENTIFIER) {
+                lastRules.add(new Rule(patterns.get(type), type.name()));
+            } else if(patterns.containsKey(type)) {
+                rules.add(new Rule(patterns.get(type), type.name()));
+            } else {
+                throw new IllegalStateException("No pattern for " + type);
+            }
+        }
+        rules.addAll(lastRules);
+
+        rules.add(new Rule("[ \\r\\t]+", "SKIP"));
+        rules.add(new Rule("\\n", "SKIP"));
+        rules.add(new Rule("//[^\\n]*", "SKIP"));
+        rules.add(new Rule("/\\*([^*]|\\*+[^*/])*\\*+/", "SKIP"));
+        // These only match up to the end of the source, where the terminated forms can't match.
+        rules.add(new Rule("\"[^\"]*", "UNTERMINATED_STRING"));
+        rules.add(new Rule("/\\*([^*]|\\*+[^*/])*\\**", "UNTERMINATED_COMMENT"));
+        return rules;
+    }
+
+    /**
+     * Compile the rules and write the tables.
+     * @param outputDir
+     * @param className
+     * @param rules
+     * @throws FileNotFoundException
+     * @throws UnsupportedEncodingException
+     */
+    private static void defineLexer(String outputDir, String className, List<Rule> rules)
+            throws FileNotFoundException, UnsupportedEncodingException {
+        Nfa nfa = new Nfa();
+        int start = nfa.newState();
+        for(int i = 0; i < rules.size(); i++) {
+            int[] fragment = new RegexParser(rules.get(i).pattern, nfa).parse();
+            nfa.epsilon(start, fragment[0]);
+            nfa.accept.put(fragment[1], i);
+        }
+
+        int[] classes = nfa.symbolClasses();
+        int classCount = Arrays.stream(classes).max().getAsInt() + 1;
+        Dfa dfa = Dfa.of(nfa, start, classes, classCount, rules).minimize();
+
+        List<String> actions = new ArrayList<>();
+        for(TokenType type : TokenType.values()) actions.add(type.name());
+        actions.addAll(SPECIAL_ACTIONS);
+
+        String path = outputDir + "/" + className + ".java";
+        PrintWriter writer = new PrintWriter(path, "UTF-8");
+
+        writer.println("package org.senyou.lox;");
+        writer.println();
+        writer.println("/**");
+        writer.println(" * The transition tables of the DFA lexer, generated by tool/GenerateLexer. Do not edit.");
+        writer.println(" * " + dfa.stateCount + " states, " + classCount + " character classes.");
+        writer.println(" */");
+        writer.println("final class " + className + " {");
+        writer.println("    private " + className + "() {}");
+        writer.println();
+        writer.println("    // Actions past the token types.");
+        for(String action : SPECIAL_ACTIONS) {
+            writer.println("    static final int " + action + " = " + actions.indexOf(action) + ";");
+        }
+        writer.println();
+        writer.println("    /** State 0 is the dead state, the scan of a token starts in state " + Dfa.START + ". */");
+        writer.println("    static final int START = " + Dfa.START + ";");
+        writer.println("    static final int CLASSES = " + classCount + ";");
+        writer.println("    /** The class of every character past ASCII. */");
+        writer.println("    static final int OTHER_CLASS = " + classes[OTHER] + ";");
+        writer.println();
+        writer.println("    /** The class of each ASCII character. */");
+        writer.println("    static final char[] CHAR_CLASSES = (" + encode(Arrays.copyOf(classes, OTHER)) + ").toCharArray();");
+        writer.println("    /** The next state, at state * CLASSES + class. */");
+        writer.println("    static final char[] TRANSITIONS = (" + encode(dfa.transitions) + ").toCharArray();");
+        writer.println("    /** The action of each state plus one, or zero if the state does not accept. */");
+        int[] accept = new int[dfa.stateCount];
+        for(int state = 0; state < dfa.stateCount; state++) {
+            accept[state] = dfa.accept[state] < 0 ? 0 : actions.indexOf(rules.get(dfa.accept[state]).action) + 1;
+        }
+        writer.println("    static final char[] ACCEPT = (" + encode(accept) + ").toCharArray();");
+        writer.println("}");
+        writer.flush();
+        writer.close();
+    }
+
+    /**
+     * Encode a table as a string literal, one char per entry, which is far more compact in a class file than an array.
+     * @param values
+     * @return the Java source of the literal.
+     */
+    private static String encode(int[] values) {
+        StringBuilder builder = new StringBuilder();
+        builder.append('"');
+        for(int i = 0; i < values.length; i++) {
+            if(i > 0 && i % 16 == 0) builder.append("\" +\n            \"");
+            // Unicode escapes are translated before the literal is read, so small values use octal escapes.
+            builder.append(values[i] < 0400 ? String.format("\\%03o", values[i]) : String.format("\\u%04x", values[i]));
+        }
+        builder.append('"');
+        return builder.toString();
+    }
+
+    /**
+     * A non-deterministic automaton. Edges are either epsilon edges or labelled with a set of symbols.
+     */
+    private static class Nfa {
+        final List<List<Integer>> epsilons = new ArrayList<>();
+        final List<List<boolean[]>> labels = new ArrayList<>();
+        final List<List<Integer>> targets = new ArrayList<>();
+        final Map<Integer, Integer> accept = new HashMap<>();
+
+        int newState() {
+            epsilons.add(new ArrayList<>());
+            labels.add(new ArrayList<>());
+            targets.add(new ArrayList<>());
+            return epsilons.size() - 1;
+        }
+
+        void epsilon(int from, int to) {
+            epsilons.get(from).add(to);
+        }
+
+        void edge(int from, boolean[] symbols, int to) {
+            labels.get(from).add(symbols);
+            targets.get(from).add(to);
+        }
+
+        /**
+         * Group the symbols that every edge label treats the same way.
+         * @return the class of each symbol.
+         */
+        int[] symbolClasses() {
+            List<boolean[]> sets = new ArrayList<>();
+            for(List<boolean[]> stateLabels : labels) sets.addAll(stateLabels);
+
+            Map<BitSet, Integer> signatures = new HashMap<>();
+            int[] classes = new int[SYMBOLS];
+            for(int symbol = 0; symbol < SYMBOLS; symbol++) {
+                BitSet signature = new BitSet();
+                for(int i = 0; i < sets.size(); i++) {
+                    if(sets.get(i)[symbol]) signature.set(i);
+                }
+                Integer existing = signatures.putIfAbsent(signature, signatures.size());
+                classes[symbol] = existing == null ? signatures.get(signature) : existing;
+            }
+            return classes;
+        }
+
+        BitSet closure(BitSet states) {
+            BitSet closure = (BitSet) states.clone();
+            List<Integer> pending = new ArrayList<>();
+            states.stream().forEach(pending::add);
+            while(!pending.isEmpty()) {
+                int state = pending.remove(pending.size() - 1);
+                for(int next : epsilons.get(state)) {
+                    if(!closure.get(next)) {
+                        closure.set(next);
+                        pending.add(next);
+                    }
+                }
+            }
+            return closure;
+        }
+    }
+
+    /**
+     * A deterministic automaton over symbol classes. State 0 is the dead state.
+     */
+    private static class Dfa {
+        static final int START = 1;
+
+        final int stateCount;
+        final int classCount;
+        final int[] transitions;
+        final int[] accept;
+
+        Dfa(int stateCount, int classCount, int[] transitions, int[] accept) {
+            this.stateCount = stateCount;
+            this.classCount = classCount;
+            this.transitions = transitions;
+            this.accept = accept;
+        }
+
+        /**
+         * Build the DFA whose states are the sets of NFA states reachable on the same input.
+         */
+        static Dfa of(Nfa nfa, int nfaStart, int[] classes, int classCount, List<Rule> rules) {
+            // A representative symbol of each class.
+            int[] representative = new int[classCount];
+            for(int symbol = SYMBOLS - 1; symbol >= 0; symbol--) representative[classes[symbol]] = symbol;
+
+            Map<BitSet, Integer> ids = new HashMap<>();
+            List<BitSet> states = new ArrayList<>();
+            states.add(new BitSet());
+            ids.put(new BitSet(), 0);
+            BitSet start = new BitSet();
+            start.set(nfaStart);
+            start = nfa.closure(start);
+            states.add(start);
+            ids.put(start, START);
+
+            List<int[]> rows = new ArrayList<>();
+            for(int id = 0; id < states.size(); id++) {
+                BitSet state = states.get(id);
+                int[] row = new int[classCount];
+                for(int c = 0; c < classCount; c++) {
+                    BitSet next = new BitSet();
+                    int symbol = representative[c];
+                    state.stream().forEach(s -> {
+                        List<boolean[]> labels = nfa.labels.get(s);
+                        for(int e = 0; e < labels.size(); e++) {
+                            if(labels.get(e)[symbol]) next.set(nfa.targets.get(s).get(e));
+                        }
+                    });
+                    BitSet closed = nfa.closure(next);
+                    Integer target = ids.get(closed);
+                    if(target == null) {
+                        target = states.size();
+                        states.add(closed);
+                        ids.put(closed, target);
+                    }
+                    row[c] = target;
+                }
+                rows.add(row);
+            }
+
+            int[] transitions = new int[states.size() * classCount];
+            int[] accept = new int[states.size()];
+            for(int id = 0; id < states.size(); id++) {
+                System.arraycopy(rows.get(id), 0, transitions, id * classCount, classCount);
+                int rule = -1;
+                for(int s = states.get(id).nextSetBit(0); s >= 0; s = states.get(id).nextSetBit(s + 1)) {
+                    Integer accepted = nfa.accept.get(s);
+                    if(accepted != null && (rule < 0 || accepted < rule)) rule = accepted;
+                }
+                accept[id] = rule < 0 ? -1 : rule;
+            }
+            return new Dfa(states.size(), classCount, transitions, accept);
+        }
+
+        /**
+         * Merge the states that no input can tell apart, by refining a partition by accepted rule
+         * until the states of every block move to the same blocks.
+         * States that can never accept end up merged with the dead state.
+         * The dead state and the start state keep their numbers.
+         */
+        Dfa minimize() {
+            int[] block = new int[stateCount];
+            Map<String, Integer> initial = new HashMap<>();
+            for(int s = 0; s < stateCount; s++) {
+                block[s] = initial.computeIfAbsent(Integer.toString(accept[s]), k -> initial.size());
+            }
+
+            int blocks = initial.size();
+            while(true) {
+                Map<String, Integer> refined = new HashMap<>();
+                int[] next = new int[stateCount];
+                for(int s = 0; s < stateCount; s++) {
+                    StringBuilder key = new StringBuilder().append(block[s]);
+                    for(int c = 0; c < classCount; c++) key.append(',').append(block[transitions[s * classCount + c]]);
+                    next[s] = refined.computeIfAbsent(key.toString(), k -> refined.size());
+                }
+                block = next;
+                if(refined.size() == blocks) break;
+                blocks = refined.size();
+            }
+
+            // Number the blocks so that the dead state is 0 and the start state is 1.
+            int[] number = new int[blocks];
+            Arrays.fill(number, -1);
+            number[block[0]] = 0;
+            number[block[START]] = START;
+            int count = 2;
+            for(int s = 0; s < stateCount; s++) {
+                if(number[block[s]] < 0) number[block[s]] = count++;
+            }
+
+            int[] minimalTransitions = new int[blocks * classCount];
+            int[] minimalAccept = new int[blocks];
+            for(int s = 0; s < stateCount; s++) {
+                int b = number[block[s]];
+                minimalAccept[b] = accept[s];
+                for(int c = 0; c < classCount; c++) {
+                    minimalTransitions[b * classCount + c] = number[block[transitions[s * classCount + c]]];
+                }
+            }
+            return new Dfa(blocks, classCount, minimalTransitions, minimalAccept);
+        }
+    }
+
+    /**
+     * A parser for the patterns, which builds their NFA fragments as it goes.
+     * It supports alternation, grouping, the *, + and ? operators, character classes with ranges
+     * and negation, and escapes. A fragment is a pair of start and end states.
+     */
+    private static class RegexParser {
+        private final String pattern;
+        private final Nfa nfa;
+        private int current = 0;
+
+        RegexParser(String pattern, Nfa nfa) {
+            this.pattern = pattern;
+            this.nfa = nfa;
+        }
+
+        int[] parse() {
+            int[] fragment = alternation();
+            if(current != pattern.length()) throw new IllegalArgumentException("Bad pattern: " + pattern);
+            return fragment;
+        }
+
+        private int[] alternation() {
+            int[] fragment = concatenation();
+            while(peek() == '|') {
+                current++;
+                int[] right = concatenation();
+                int start = nfa.newState();
+                int end = nfa.newState();
+                nfa.epsilon(start, fragment[0]);
+                nfa.epsilon(start, right[0]);
+                nfa.epsilon(fragment[1], end);
+                nfa.epsilon(right[1], end);
+                fragment = new int[]{start, end};
+            }
+            return fragment;
+        }
+
+        private int[] concatenation() {
+            int start = nfa.newState();
+            int[] fragment = {start, start};
+            while(current < pattern.length() && peek() != '|' && peek() != ')') {
+                int[] next = repetition();
+                nfa.epsilon(fragment[1], next[0]);
+                fragment = new int[]{fragment[0], next[1]};
+            }
+            return fragment;
+        }
+
+        private int[] repetition() {
+            int[] fragment = atom();
+            while(peek() == '*' || peek() == '+' || peek() == '?') {
+                char operator = pattern.charAt(current++);
+                int start = nfa.newState();
+                int end = nfa.newState();
+                nfa.epsilon(start, fragment[0]);
+                nfa.epsilon(fragment[1], end);
+                if(operator != '+') nfa.epsilon(start, end);
+                if(operator != '?') nfa.epsilon(fragment[1], fragment[0]);
+                fragment = new int[]{start, end};
+            }
+            return fragment;
+        }
+
+        private int[] atom() {
+            char c = pattern.charAt(current++);
+            if(c == '(') {
+                int[] fragment = alternation();
+                if(peek() != ')') throw new IllegalArgumentException("Unclosed group: " + pattern);
+                current++;
+                return fragment;
+            }
+
+            boolean[] symbols;
+            if(c == '[') {
+                symbols = characterClass();
+            } else {
+                symbols = new boolean[SYMBOLS];
+                symbols[c == '\\' ? escape() : c] = true;
+            }
+            int start = nfa.newState();
+            int end = nfa.newState();
+            nfa.edge(start, symbols, end);
+            return new int[]{start, end};
+        }
+
+        private boolean[] characterClass() {
+            boolean[] symbols = new boolean[SYMBOLS];
+            boolean negated = peek() == '^';
+            if(negated) current++;
+            while(peek() != ']') {
+                char from = pattern.charAt(current++);
+                if(from == '\\') from = escape();
+                char to = from;
+                if(peek() == '-' && current + 1 < pattern.length() && pattern.charAt(current + 1) != ']') {
+                    current++;
+                    to = pattern.charAt(current++);
+                    if(to == '\\') to = escape();
+                }
+                for(char symbol = from; symbol <= to; symbol++) symbols[symbol] = true;
+            }
+            current++;
+            if(negated) {
+                for(int symbol = 0; symbol < SYMBOLS; symbol++) symbols[symbol] = !symbols[symbol];
+            }
+            return symbols;
+        }
+
+        private char escape() {
+            char c = pattern.charAt(current++);
+            switch(c) {
+                case 'n': return '\n';
+                case 'r': return '\r';
+                case 't': return '\t';
+                default: return c;
+            }
+        }
+
+        private char peek() {
+            if(current >= pattern.length()) return '\0';
+            return pattern.charAt(current);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.senyou.lox;
+
+import java.util.Arrays;
+
+/**
+ * Measure the overhead of evaluating under an execution context compared to evaluating without limits.
+ * The source is scanned and parsed once, outside the timing, so only evaluation is measured:
+ * the tree as the parser builds it, with boxed values, and the same tree once type inference has proven
+ * it numeric. The budgeted runs never run out. Runs alternate, and the medians are compared.
+ * Run it with: gradle budgetBenchmark
+ */
+class BudgetBenchmark {
+    private static final int WARMUP_RUNS = 20;
+    private static final int RUNS = 101;
+
+    public static void main(String[] args) {
+        String source = balanced(500_000);
+        Expr boxed = new Parser(new Scanner(source).scanTokens()).parse();
+        Expr unboxed = new Parser(new Scanner(source).scanTokens()).parse();
+        new TypeInference().infer(unboxed);
+
+        compare("boxed", boxed);
+        compare("unboxed", unboxed);
+    }
+
+    /**
+     * Evaluate the tree with and without a budget, alternating, and print the median times.
+     * @param name
+     * @param expression
+     */
+    private static void compare(String name, Expr expression) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            time(expression, null);
+            time(expression, new ExecutionContext(Long.MAX_VALUE, Long.MAX_VALUE));
+        }
+
+        long[] unbudgeted = new long[RUNS];
+        long[] budgeted = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            unbudgeted[i] = time(expression, null);
+            budgeted[i] = time(expression, new ExecutionContext(Long.MAX_VALUE, Long.MAX_VALUE));
+        }
+
+        long without = median(unbudgeted);
+        long with = median(budgeted);
+        System.out.printf("%-8s unbudgeted %,12d ns  budgeted %,12d ns  overhead %6.1f %%%n",
+                name, without, with, 100.0 * (with - without) / without);
+    }
+
+    /**
+     * Evaluate the tree once.
+     * @param expression
+     * @param context
+     * @return the time in nanoseconds.
+     */
+    private static long time(Expr expression, ExecutionContext context) {
+        Interpreter interpreter = new Interpreter(context);
+        long start = System.nanoTime();
+        interpreter.evaluateTree(expression);
+        return System.nanoTime() - start;
+    }
+
+    private static long median(long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * A balanced tree of additions and multiplications over the given number of leaves.
+     * @param leaves
+     * @return the source.
+     */
+    private static String balanced(int leaves) {
+        StringBuilder builder = new StringBuilder();
+        balanced(builder, leaves, 0);
+        return builder.toString();
+    }
+
+    private static void balanced(StringBuilder builder, int leaves, int depth) {
+        if (leaves == 1) {
+            builder.append(depth % 7);
+            return;
+        }
+        builder.append('(');
+        balanced(builder, leaves / 2, depth + 1);
+        builder.append(depth % 2 == 0 ? " + " : " * ");
+        balanced(builder, leaves - leaves / 2, depth + 1);
+        builder.append(')');
+    }
+}
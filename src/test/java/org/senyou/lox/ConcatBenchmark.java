@@ -0,0 +1,58 @@
+package org.senyou.lox;
+
+/**
+ * Measure string concatenation chains such as "a" + "b" + ... of growing length.
+ * The time per term should stay flat: building the chain is linear and so is printing it.
+ * Run it with: gradle concatBenchmark
+ */
+class ConcatBenchmark {
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        // A chain is a left-deep tree, and the interpreter recurses once per term.
+        Thread runner = new Thread(null, ConcatBenchmark::run, "concat-benchmark", 1L << 30);
+        runner.start();
+        runner.join();
+    }
+
+    private static void run() {
+        Interpreter interpreter = new Interpreter();
+        for (int i = 0; i < 3; i++) time(interpreter, chain(10_000));
+
+        for (int terms = 12_500; terms <= 200_000; terms *= 2) {
+            long nanos = time(interpreter, chain(terms));
+            System.out.printf("%,8d terms %,14d ns %8.1f ns/term%n", terms, nanos, (double) nanos / terms);
+        }
+    }
+
+    /**
+     * Evaluate and print the chain a few times and keep the fastest run.
+     * @param interpreter
+     * @param chain
+     * @return the fastest time in nanoseconds.
+     */
+    private static long time(Interpreter interpreter, Expr chain) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            String text = interpreter.stringify(interpreter.evaluateTree(chain));
+            best = Math.min(best, System.nanoTime() - start);
+            if (text.isEmpty()) throw new AssertionError();
+        }
+        return best;
+    }
+
+    /**
+     * Parse "s0" + "s1" + ... with the given number of terms.
+     * @param terms
+     * @return the expression.
+     */
+    private static Expr chain(int terms) {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) source.append(" + ");
+            source.append("\"s").append(i).append('"');
+        }
+        return new Parser(new Scanner(source.toString()).scanTokens()).parse();
+    }
+}
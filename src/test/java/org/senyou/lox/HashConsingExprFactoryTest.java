@@ -0,0 +1,123 @@
+package org.senyou.lox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Check which nodes the hash-consing factory shares, and that the shared trees evaluate like unshared ones.
+ */
+class HashConsingExprFactoryTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void sharesStructurallyEqualSubtrees() {
+        HashConsingExprFactory factory = new HashConsingExprFactory();
+        Expr.Binary product = (Expr.Binary) parse("(1 + 2) * (1 + 2)", factory);
+        assertSame(product.left, product.right);
+        assertEquals(9, factory.requested());
+        assertEquals(5, factory.distinct());
+        assertEquals(1.0 - 5.0 / 9, factory.sharingRatio());
+
+        Expr.Binary sum = (Expr.Binary) ((Expr.Grouping) product.left).expression;
+        assertSame(sum, factory.binary(factory.literal(1.0), token(TokenType.PLUS, "+", 7), factory.literal(2.0)));
+        assertSame(factory.unary(token(TokenType.MINUS, "-", 1), sum), factory.unary(token(TokenType.MINUS, "-", 2), sum));
+    }
+
+    @Test
+    void keepsLiteralsOfDifferentTypesApart() {
+        HashConsingExprFactory factory = new HashConsingExprFactory();
+        Expr number = factory.literal(1.0);
+        Expr string = factory.literal("1");
+        Expr bool = factory.literal(true);
+        assertNotSame(number, string);
+        assertNotSame(number, bool);
+        assertNotSame(string, bool);
+        assertNotSame(factory.literal(null), factory.literal(false));
+        assertNotSame(number, factory.literal("1.0"));
+        assertNotSame(bool, factory.literal("true"));
+
+        assertSame(number, factory.literal(1.0));
+        assertSame(string, factory.literal("1"));
+        assertSame(bool, factory.literal(true));
+        assertSame(factory.literal(null), factory.literal(null));
+
+        Expr.Binary equal = (Expr.Binary) parse("(1 == \"1\") == (true == 1)", factory);
+        Expr.Binary left = (Expr.Binary) ((Expr.Grouping) equal.left).expression;
+        Expr.Binary right = (Expr.Binary) ((Expr.Grouping) equal.right).expression;
+        assertSame(left.left, right.right);
+        assertNotSame(left.left, left.right);
+        assertNotSame(left.left, right.left);
+    }
+
+    @Test
+    void keepsOperatorsWithDifferentLexemesApart() {
+        HashConsingExprFactory factory = new HashConsingExprFactory();
+        Expr one = factory.literal(1.0);
+        Expr two = factory.literal(2.0);
+        Expr plus = factory.binary(one, token(TokenType.PLUS, "+", 1), two);
+        assertNotSame(plus, factory.binary(one, token(TokenType.PLUS, "add", 1), two));
+        assertNotSame(plus, factory.binary(one, token(TokenType.MINUS, "+", 1), two));
+        assertNotSame(plus, factory.binary(two, token(TokenType.PLUS, "+", 1), one));
+        assertNotSame(factory.unary(token(TokenType.MINUS, "-", 1), one), factory.unary(token(TokenType.MINUS, "neg", 1), one));
+
+        // A shared node keeps the operator of its first occurrence, and so its line.
+        Expr.Binary again = (Expr.Binary) factory.binary(one, token(TokenType.PLUS, "+", 9), two);
+        assertSame(plus, again);
+        assertEquals(1, again.operator.line());
+    }
+
+    @Test
+    void evaluatesSharedTreesLikeUnsharedOnes() {
+        String source = "((1 + 2) * (1 + 2) - -(1 + 2)) / ((1 + 2) * (1 + 2)) == (\"a\" + \"b\" == \"a\" + \"b\")";
+        Interpreter interpreter = new Interpreter();
+        assertEquals(interpreter.evaluateTree(parse(source, new ExprFactory())),
+                interpreter.evaluateTree(parse(source, new HashConsingExprFactory())));
+        assertEquals(12.0 / 9, interpreter.evaluateTree(((Expr.Binary) parse(source, new HashConsingExprFactory())).left));
+    }
+
+    @Test
+    void jloxSelectsTheFactoryWithAProperty() throws Exception {
+        // Inference reports a failing node once, so a shared one is reported at its first occurrence only.
+        String source = "-\"a\"\n== -\"a\"";
+        assertEquals("[line 1] Error at '-': Operand must be a number.\n", runLox(source, "hashcons"));
+        assertEquals("[line 1] Error at '-': Operand must be a number.\n[line 2] Error at '-': Operand must be a number.\n",
+                runLox(source, "plain"));
+    }
+
+    private static Token token(TokenType type, String lexeme, int line) {
+        return new Token(type, lexeme, null, line);
+    }
+
+    private static Expr parse(String source, ExprFactory factory) {
+        return new Parser(new Scanner(source).scanTokens(), factory).parse();
+    }
+
+    /**
+     * Run jlox with type inference on the source in a JVM of its own.
+     * @param source
+     * @param factory the value of -Dlox.factory.
+     * @return the errors it reported.
+     */
+    private String runLox(String source, String factory) throws IOException, InterruptedException {
+        Path script = Files.createTempFile(directory, "script", ".lox");
+        Files.writeString(script, source);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-Dlox.infer=true", "-Dlox.factory=" + factory,
+                "-cp", System.getProperty("java.class.path"), "org.senyou.lox.Lox", script.toString())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        String errors = new String(process.getErrorStream().readAllBytes());
+        assertEquals(65, process.waitFor(), source);
+        return errors;
+    }
+}
@@ -0,0 +1,65 @@
+package org.senyou.lox;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Check that strings built by concatenation compare and print exactly like flat strings.
+ */
+class LoxStringTest {
+    private static final Token PLUS = new Token(TokenType.PLUS, "+", null, 1);
+
+    @Test
+    void comparesRopesAndStringsByContent() {
+        assertEvaluates("true", "(\"a\" + \"bc\") == (\"ab\" + \"c\")");
+        assertEvaluates("true", "\"ab\" == \"a\" + \"b\"");
+        assertEvaluates("true", "\"a\" + \"b\" == \"ab\"");
+        assertEvaluates("false", "\"a\" + \"b\" != \"ab\"");
+        assertEvaluates("false", "\"ab\" != (\"a\" + \"b\")");
+        assertEvaluates("false", "(\"a\" + \"b\") == (\"a\" + \"c\")");
+        assertEvaluates("false", "\"ab\" == \"a\" + \"bc\"");
+        assertEvaluates("false", "\"1\" + \"\" == 1");
+        assertEvaluates("true", "(\"\" + \"\") == \"\"");
+    }
+
+    @Test
+    void printsNestedRopes() {
+        assertEvaluates("abcdef", "(\"a\" + (\"b\" + \"c\")) + ((\"d\" + \"e\") + \"f\")");
+        assertEvaluates("abc", "\"\" + \"a\" + \"\" + \"bc\" + \"\"");
+        assertEvaluates("xy".repeat(200), "\"x\" + \"y\"" + " + \"x\" + \"y\"".repeat(199));
+    }
+
+    @Test
+    void printsSharedPiecesEveryTimeTheyOccur() {
+        Object ab = LoxString.concat("a", "b");
+        Object abab = LoxString.concat(ab, ab);
+        assertEquals("abab", new Interpreter().stringify(abab));
+        assertEquals("ab", ab.toString());
+        assertEquals("ababab", LoxString.concat(abab, ab).toString());
+    }
+
+    @Test
+    void failsWhenTheStringWouldBeTooLong() {
+        // Doubling links the same rope twice, so the length grows past the limit without copying a character.
+        Object text = "a";
+        for (int i = 0; i < 30; i++) text = LoxString.concat(text, text);
+        assertInstanceOf(LoxString.class, text);
+        assertEquals(1 << 30, ((CharSequence) text).length());
+        assertNull(LoxString.concat(text, text));
+
+        Object tooLong = text;
+        RuntimeError error = assertThrows(RuntimeError.class, () -> new Interpreter().binary(PLUS, tooLong, tooLong));
+        assertEquals("String is too long.", error.getMessage());
+        assertEquals(PLUS, error.token);
+    }
+
+    private static void assertEvaluates(String expected, String source) {
+        Interpreter interpreter = new Interpreter();
+        Expr expression = new Parser(new Scanner(source).scanTokens()).parse();
+        assertEquals(expected, interpreter.stringify(interpreter.evaluateTree(expression)), source);
+    }
+}
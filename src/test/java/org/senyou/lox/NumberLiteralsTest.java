@@ -0,0 +1,80 @@
+package org.senyou.lox;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Check that number literals parse bit for bit like {@link Double#parseDouble},
+ * on the edges of the fast path and on random literals of every length.
+ */
+class NumberLiteralsTest {
+    private static final int RANDOM_LITERALS = 2_000_000;
+
+    private static final List<String> EDGES = List.of(
+            "0", "0.0", "1", "1023", "1024", "0.1", "0.3", "123.456",
+            // 2^53 is the largest integer the fast path takes, 2^53 + 1 is not exact as a double.
+            "9007199254740992", "9007199254740993", "9007199254740994", "9007199254740991.5",
+            "18446744073709551615", "99999999999999999999999",
+            // 10^22 is the largest exact power of ten: 22 fraction digits are fast, 23 fall back.
+            "0.1234567890123456789012", "0.12345678901234567890123", "1.0000000000000000000001",
+            "0.0000000000000000000001", "0.00000000000000000000001",
+            // Leading and trailing zeros count as digits without changing the value.
+            "0000000000000000000000000001", "007", "00.5", "1.50000000000000000000000000",
+            "0000000000000000000000009007199254740993", "0.000000000000000000000000000000000000001");
+
+    @Test
+    void edgesMatchParseDouble() {
+        for (String literal : EDGES) assertParsesLikeJdk(literal);
+    }
+
+    @Test
+    void randomLiteralsMatchParseDouble() {
+        Random random = new Random(42);
+        for (int i = 0; i < RANDOM_LITERALS; i++) assertParsesLikeJdk(randomLiteral(random));
+    }
+
+    @Test
+    void parsesOnlyTheGivenRange() {
+        String source = "12 + 3.25*0.5";
+        assertEquals(12.0, NumberLiterals.parse(source, 0, 2));
+        assertEquals(3.25, NumberLiterals.parse(source, 5, 9));
+        assertEquals(0.5, NumberLiterals.parse(source, 10, 13));
+    }
+
+    @Test
+    void sharesSmallIntegers() {
+        assertSame(NumberLiterals.parse("1 + 1", 0, 1), NumberLiterals.parse("1 + 1", 4, 5));
+        assertSame(NumberLiterals.parse("1023", 0, 4), NumberLiterals.parse("01023", 0, 5));
+    }
+
+    private static void assertParsesLikeJdk(String literal) {
+        long expected = Double.doubleToRawLongBits(Double.parseDouble(literal));
+        long actual = Double.doubleToRawLongBits(NumberLiterals.parse(literal, 0, literal.length()));
+        assertEquals(expected, actual, literal);
+    }
+
+    /**
+     * A literal as the scanner accepts it: digits, then optionally a dot and more digits.
+     * Lengths are spread evenly, so both sides of the fast path's limits are well covered.
+     */
+    private static String randomLiteral(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int zeros = random.nextInt(4) == 0 ? random.nextInt(4) : 0;
+        builder.append("0".repeat(zeros));
+        appendDigits(builder, random, 1 + random.nextInt(24));
+        if (random.nextBoolean()) {
+            builder.append('.');
+            appendDigits(builder, random, 1 + random.nextInt(26));
+        }
+        return builder.toString();
+    }
+
+    private static void appendDigits(StringBuilder builder, Random random, int count) {
+        for (int i = 0; i < count; i++) builder.append((char) ('0' + random.nextInt(10)));
+    }
+}
@@ -0,0 +1,67 @@
+package org.senyou.lox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measure the speedup of the parallel interpreter over the sequential one across core counts.
+ * Run it with: gradle parallelBenchmark [-Pnodes=4000000]
+ */
+class ParallelBenchmark {
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        int leaves = args.length > 0 ? Integer.parseInt(args[0]) / 2 : 2_000_000;
+        Expr expression = balanced(leaves, 0);
+
+        long sequential = time(new Interpreter(), expression);
+        System.out.printf("sequential %,12d ns%n", sequential);
+
+        List<Integer> counts = new ArrayList<>();
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int cores = 1; cores < processors; cores *= 2) counts.add(cores);
+        counts.add(processors);
+
+        for (int cores : counts) {
+            ForkJoinPool pool = new ForkJoinPool(cores);
+            try {
+                long threshold = Math.max(1024, (2L * leaves) / (cores * 16L));
+                long nanos = time(new ParallelInterpreter(pool, threshold), expression);
+                System.out.printf("%3d cores  %,12d ns  speedup %.2f%n", cores, nanos, (double) sequential / nanos);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Evaluate the expression a few times and keep the fastest run.
+     * @param interpreter
+     * @param expression
+     * @return the fastest time in nanoseconds.
+     */
+    private static long time(Interpreter interpreter, Expr expression) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            interpreter.evaluateTree(expression);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * Build a balanced tree of arithmetic over the given number of leaves.
+     * @param leaves
+     * @param depth
+     * @return the expression.
+     */
+    private static Expr balanced(int leaves, int depth) {
+        if (leaves == 1) return new Expr.Literal((double) (depth % 7));
+        Token operator = depth % 2 == 0
+                ? new Token(TokenType.PLUS, "+", null, 1)
+                : new Token(TokenType.STAR, "*", null, 1);
+        return new Expr.Binary(balanced(leaves / 2, depth + 1), operator, balanced(leaves - leaves / 2, depth + 1));
+    }
+}
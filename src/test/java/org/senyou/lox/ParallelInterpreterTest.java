@@ -0,0 +1,121 @@
+package org.senyou.lox;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Check that the parallel interpreter gives the same values and errors as the sequential one,
+ * with and without a step budget.
+ */
+class ParallelInterpreterTest {
+    private static final long THRESHOLD = 64;
+    private static final int REPEATS = 20;
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void matchesSequentialValues() {
+        assertSameOutcome(balanced(1 << 12, 0));
+        assertSameOutcome("(" + sum(1_000) + ") * (" + sum(1_000) + ") - -(" + sum(200) + ")");
+        assertSameOutcome("(\"a\" + \"b\" + \"c\"" + " + \"d\"".repeat(300) + ") == (\"ab\" + \"cd\"" + " + \"d\"".repeat(299) + ")");
+    }
+
+    @Test
+    void reportsTheLeftErrorWhenBothSidesFail() {
+        // The right side fails on its first operation, long before the left side gets to its error.
+        String left = "(" + sum(1_000) + " + -\"left\")";
+        String right = "(1 < \"right\"" + " + 1".repeat(1_000) + ")";
+        Expr expression = parse(left + " +\n" + right);
+        for (int i = 0; i < REPEATS; i++) {
+            assertEquals("Operand must be a number. [line 1]", outcome(new ParallelInterpreter(pool, THRESHOLD), expression));
+        }
+    }
+
+    @Test
+    void runsOutOfStepsWhereSequentialEvaluationWould() {
+        // A type error after about 2,000 steps, on the left side and then on the right side of a fork.
+        String failing = "(" + sum(1_000) + " + -\"a\")";
+        String large = "(" + balanced(1 << 10, 0) + ")";
+        assertSameOutcomeWithBudgets(parse(failing + " + " + large));
+        assertSameOutcomeWithBudgets(parse(large + " + " + failing));
+    }
+
+    @Test
+    void takesAsManyStepsAsSequentialEvaluation() {
+        Expr expression = parse("(" + balanced(1 << 10, 0) + ") - (" + balanced(1 << 10, 1) + ")");
+        ExecutionContext sequential = new ExecutionContext(1_000_000, Long.MAX_VALUE);
+        ExecutionContext parallel = new ExecutionContext(1_000_000, Long.MAX_VALUE);
+        assertEquals(outcome(new Interpreter(sequential), expression),
+                outcome(new ParallelInterpreter(pool, THRESHOLD, parallel), expression));
+        assertEquals(sequential.remainingSteps(), parallel.remainingSteps());
+    }
+
+    @Test
+    void evaluatesLeftLeaningChains() {
+        assertSameOutcome(sum(2_000));
+        assertSameOutcome(sum(2_000) + " + nil");
+    }
+
+    private static void assertSameOutcome(String source) {
+        Expr expression = parse(source);
+        String expected = outcome(new Interpreter(), expression);
+        for (int i = 0; i < REPEATS; i++) {
+            assertEquals(expected, outcome(new ParallelInterpreter(pool, THRESHOLD), expression));
+        }
+    }
+
+    /**
+     * Evaluate the expression with every budget up to its size, repeatedly, and compare with sequential evaluation.
+     * @param expression
+     */
+    private static void assertSameOutcomeWithBudgets(Expr expression) {
+        for (long budget = 0; budget < 6_500; budget += 37) {
+            String expected = outcome(new Interpreter(new ExecutionContext(budget, Long.MAX_VALUE)), expression);
+            for (int i = 0; i < 5; i++) {
+                ExecutionContext context = new ExecutionContext(budget, Long.MAX_VALUE);
+                assertEquals(expected, outcome(new ParallelInterpreter(pool, THRESHOLD, context), expression), "Budget " + budget);
+            }
+        }
+    }
+
+    /**
+     * Evaluate the expression and describe its value or its error.
+     * @param interpreter
+     * @param expression
+     * @return the value as Lox prints it, or the message of the error, with its line for a runtime error.
+     */
+    static String outcome(Interpreter interpreter, Expr expression) {
+        try {
+            return interpreter.stringify(interpreter.evaluateTree(expression));
+        } catch (RuntimeError error) {
+            return error.getMessage() + " [line " + error.token.line() + "]";
+        } catch (ExecutionLimitError error) {
+            return error.getMessage();
+        }
+    }
+
+    static Expr parse(String source) {
+        return new Parser(new Scanner(source).scanTokens()).parse();
+    }
+
+    static String sum(int terms) {
+        return "1" + " + 1".repeat(terms - 1);
+    }
+
+    /**
+     * A balanced tree of additions and multiplications over the given number of leaves.
+     */
+    static String balanced(int leaves, int depth) {
+        if (leaves == 1) return Integer.toString(depth % 7);
+        String operator = depth % 2 == 0 ? " + " : " * ";
+        return "(" + balanced(leaves / 2, depth + 1) + operator + balanced(leaves - leaves / 2, depth + 1) + ")";
+    }
+}
@@ -0,0 +1,88 @@
+package org.senyou.lox;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Check that pipe mode writes one output line per input line, in input order, whatever the number of workers,
+ * and records the errors that decide the exit code.
+ */
+class PipeModeTest {
+    // Enough lines for several batches, so the workers finish them out of order.
+    private static final int LINES = 20_000;
+
+    @Test
+    void writesOneLinePerInputInOrder() throws IOException {
+        StringBuilder input = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            switch (i % 5) {
+                case 0 -> { input.append(i).append(" + 1"); expected.add(Integer.toString(i + 1)); }
+                case 1 -> { input.append("\"s\" + \"").append(i).append('"'); expected.add("s" + i); }
+                case 2 -> { input.append("1 +"); expected.add(""); }
+                case 3 -> { input.append("-\"a\""); expected.add(""); }
+                default -> { input.append("\"\""); expected.add(""); }
+            }
+            input.append('\n');
+        }
+
+        Run sequential = run(1, input.toString());
+        Run parallel = run(4, input.toString());
+        assertEquals(expected, sequential.out.lines().toList());
+        assertEquals(sequential.out, parallel.out);
+        assertEquals(sequential.err, parallel.err);
+        assertTrue(sequential.err.startsWith("[line 3] Error at end: Expect expression.\nOperand must be a number.\n[line 4]\n"),
+                sequential.err);
+    }
+
+    @Test
+    void recordsSyntaxAndRuntimeErrors() throws IOException {
+        for (int workers : new int[] {1, 4}) {
+            Run ok = run(workers, "1 + 2\n\"a\"\n");
+            assertFalse(ok.hadError);
+            assertFalse(ok.hadRuntimeError);
+            assertEquals("3\na\n", ok.out);
+
+            Run runtime = run(workers, "1\n-\"a\"\n3\n");
+            assertFalse(runtime.hadError);
+            assertTrue(runtime.hadRuntimeError);
+            assertEquals("1\n\n3\n", runtime.out);
+
+            Run syntax = run(workers, "(1\n2\n");
+            assertTrue(syntax.hadError);
+            assertFalse(syntax.hadRuntimeError);
+            assertEquals("\n2\n", syntax.out);
+
+            Run both = run(workers, "1 +\n-nil\n");
+            assertTrue(both.hadError);
+            assertTrue(both.hadRuntimeError);
+            assertEquals("\n\n", both.out);
+        }
+    }
+
+    /** What a run wrote, without the closing throughput line, and the errors it recorded. */
+    private record Run(String out, String err, boolean hadError, boolean hadRuntimeError) {}
+
+    private static Run run(int workers, String input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        PipeMode pipe = new PipeMode(workers);
+        pipe.run(new ByteArrayInputStream(input.getBytes(Charset.defaultCharset())), out, err);
+
+        String errors = err.toString(Charset.defaultCharset());
+        String throughput = errors.substring(errors.lastIndexOf('\n', errors.length() - 2) + 1);
+        assertTrue(throughput.startsWith(String.format("%,d lines in ", input.lines().count())), throughput);
+        return new Run(out.toString(Charset.defaultCharset()), errors.substring(0, errors.length() - throughput.length()),
+                pipe.hadError, pipe.hadRuntimeError);
+    }
+}
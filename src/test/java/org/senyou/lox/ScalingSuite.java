@@ -0,0 +1,356 @@
+package org.senyou.lox;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A scalability regression suite for the scanner, the parser and the printer.
+ * It generates inputs of growing size in several shapes, measures the time and the peak heap of each phase,
+ * fits the growth curve on a log-log scale and fails when a phase grows super-linearly
+ * or when it is much slower per byte than the stored baseline at the same size.
+ * Sizes double, so that every fit has at least three points; a fit with fewer fails the suite.
+ * Phases that take less than {@value #MIN_NANOS} ns, like parsing a single literal, are below the timer's noise
+ * and are neither fitted nor compared; the same goes for the heap of phases that use less than {@value #MIN_HEAP} B.
+ * Times include garbage collector pauses, since allocation that grows faster than the input shows up there;
+ * the time without them is printed next to it.
+ * Every phase runs as jlox runs it: the scanner builds the whole token list, which the parser then reads.
+ * The tokens, the tree and the printed output of the largest input are all live at once, which takes
+ * about {@value #HEAP_PER_BYTE} bytes of heap per input byte: the gradle task sizes the heap from maxBytes,
+ * so a 1 GB run needs a machine with about 160 GB of memory, and the default 3 GB heap stops at 16 MB.
+ * At 16 MB, a young collection copies the live token list in the middle of the scan and takes most of its time,
+ * so the scan's time is close to the exponent limit there; larger runs want a larger young generation.
+ * Run it with: gradle scalingSuite [-PmaxBytes=16777216] [-Precord]
+ */
+class ScalingSuite {
+    /** The largest growth exponent we accept as linear; measurements are noisy. */
+    private static final double MAX_EXPONENT = 1.25;
+    /** How much slower per byte than the baseline a phase may get. */
+    private static final double MAX_REGRESSION = 3.0;
+    /** Time is only fitted on inputs at least this large, below that the JIT and the timer dominate. */
+    private static final long MIN_TIMED_BYTES = 64 * 1024;
+    /** Phases faster than this are within the timer's and the scheduler's noise. */
+    private static final long MIN_NANOS = 20_000;
+    /** Phases that use less heap than this are within the TLABs' noise; the gradle task fixes them at 64 KB. */
+    private static final long MIN_HEAP = 256 * 1024;
+    /** The smallest largest input: the heap of a string grows with it, and needs three points over MIN_HEAP. */
+    private static final long MIN_MAX_BYTES = 1024 * 1024;
+    /** The fewest points a growth curve is fitted on. */
+    private static final int MIN_POINTS = 3;
+    /** The heap needed per byte of the largest input, with some headroom; build.gradle.kts uses the same figure. */
+    private static final long HEAP_PER_BYTE = 160;
+
+    /** The shape of a generated input. */
+    private record Shape(String name, long maxBytes, Generator generator) {}
+
+    private interface Generator {
+        String generate(int bytes);
+    }
+
+    /** The measurements of one phase on one input: its time, and how much of it the collector took. */
+    private record Sample(long bytes, long nanos, long collectionNanos, long heap) {}
+
+    private static final String[] PHASES = {"scan", "parse", "print"};
+
+    public static void main(String[] args) throws Exception {
+        long maxBytes = 4L * 1024 * 1024;
+        Path baselinePath = Paths.get("scaling-baseline.properties");
+        boolean record = false;
+        for (String arg : args) {
+            if (arg.startsWith("--max-bytes=")) {
+                maxBytes = Long.parseLong(arg.substring("--max-bytes=".length()));
+            } else if (arg.startsWith("--baseline=")) {
+                baselinePath = Paths.get(arg.substring("--baseline=".length()));
+            } else if (arg.equals("--record")) {
+                record = true;
+            } else {
+                System.err.println("Usage: scaling_suite [--max-bytes=N] [--baseline=path] [--record]");
+                System.exit(64);
+            }
+        }
+
+        long largest = 1024;
+        while (largest * 2 <= maxBytes) largest *= 2;
+        if (largest < MIN_MAX_BYTES) {
+            System.err.printf("Every fit needs %d points, so the largest input has to be at least %,d B.%n",
+                    MIN_POINTS, MIN_MAX_BYTES);
+            System.exit(64);
+        }
+        long heap = Runtime.getRuntime().maxMemory();
+        if (largest * HEAP_PER_BYTE > heap) {
+            System.err.printf("Inputs of %,d B need about %,d MB of heap, this JVM has %,d MB.%n",
+                    largest, largest * HEAP_PER_BYTE >> 20, heap >> 20);
+            System.exit(64);
+        }
+
+        // Deeply nested inputs recurse once per level in every phase.
+        long limit = maxBytes;
+        boolean recordBaseline = record;
+        Path baselineFile = baselinePath;
+        boolean[] passed = new boolean[1];
+        Thread runner = new Thread(null, () -> passed[0] = run(limit, baselineFile, recordBaseline),
+                "scaling-suite", 1L << 30);
+        runner.start();
+        runner.join();
+        if (!passed[0]) System.exit(1);
+    }
+
+    private static boolean run(long maxBytes, Path baselinePath, boolean record) {
+        List<Shape> shapes = List.of(
+                new Shape("wide", Long.MAX_VALUE, bytes -> balanced(bytes, " ")),
+                new Shape("deep", 1024 * 1024, ScalingSuite::deep),
+                new Shape("string", Long.MAX_VALUE, ScalingSuite::longString),
+                new Shape("comment", Long.MAX_VALUE, ScalingSuite::longComment),
+                new Shape("lines", Long.MAX_VALUE, bytes -> balanced(bytes, "\n"))
+        );
+
+        Properties baseline = loadBaseline(baselinePath);
+        Properties measured = new Properties();
+        List<String> failures = new ArrayList<>();
+
+        // Warm up every phase on small inputs before measuring anything.
+        for (int i = 0; i < 20; i++) {
+            for (Shape shape : shapes) measure(shape.generator.generate(16 * 1024));
+        }
+
+        for (Shape shape : shapes) {
+            List<List<Sample>> samples = new ArrayList<>();
+            for (int i = 0; i < PHASES.length; i++) samples.add(new ArrayList<>());
+
+            for (long bytes = 1024; bytes <= Math.min(maxBytes, shape.maxBytes); bytes *= 2) {
+                String source = shape.generator.generate((int) Math.min(bytes, Integer.MAX_VALUE - 8));
+                Sample[] phases = measure(source);
+                for (int i = 0; i < PHASES.length; i++) {
+                    samples.get(i).add(phases[i]);
+                    System.out.printf("%-8s %-6s %,14d B %,14d ns %,14d ns without GC %,14d B heap%n",
+                            shape.name, PHASES[i], phases[i].bytes, phases[i].nanos,
+                            phases[i].nanos - phases[i].collectionNanos, phases[i].heap);
+                }
+            }
+
+            for (int i = 0; i < PHASES.length; i++) {
+                String key = shape.name + "." + PHASES[i];
+                List<Sample> phase = samples.get(i);
+                List<Sample> timed = phase.stream()
+                        .filter(sample -> sample.bytes >= MIN_TIMED_BYTES && sample.nanos >= MIN_NANOS).toList();
+                List<Sample> sized = phase.stream()
+                        .filter(sample -> sample.heap >= MIN_HEAP).toList();
+
+                if (timed.isEmpty()) {
+                    System.out.printf("%-15s time below %,d ns at every size, not checked%n", key, MIN_NANOS);
+                } else if (timed.size() < MIN_POINTS) {
+                    failures.add(key + " time has only " + timed.size() + " points over " + MIN_NANOS + " ns to fit");
+                } else {
+                    double timeExponent = exponent(timed, Sample::nanos);
+                    double mutatorExponent = exponent(timed, sample -> Math.max(1, sample.nanos - sample.collectionNanos));
+                    System.out.printf("%-15s time ~ n^%.2f (n^%.2f without GC) over %d points%n",
+                            key, timeExponent, mutatorExponent, timed.size());
+                    if (timeExponent > MAX_EXPONENT) failures.add(key + " time grows as n^" + format(timeExponent));
+                }
+
+                if (sized.isEmpty()) {
+                    System.out.printf("%-15s heap below %,d B at every size, not checked%n", key, MIN_HEAP);
+                } else if (sized.size() < MIN_POINTS) {
+                    failures.add(key + " heap has only " + sized.size() + " points over " + MIN_HEAP + " B to fit");
+                } else {
+                    double heapExponent = exponent(sized, Sample::heap);
+                    System.out.printf("%-15s heap ~ n^%.2f over %d points%n", key, heapExponent, sized.size());
+                    if (heapExponent > MAX_EXPONENT) failures.add(key + " heap grows as n^" + format(heapExponent));
+                }
+
+                // The baseline has an entry per size, and a run is only compared with it at the sizes both measured.
+                for (Sample sample : timed) {
+                    String sizeKey = key + "." + sample.bytes;
+                    double nanosPerByte = (double) sample.nanos / sample.bytes;
+                    measured.setProperty(sizeKey, Double.toString(nanosPerByte));
+                    String stored = baseline.getProperty(sizeKey);
+                    if (stored != null && nanosPerByte > MAX_REGRESSION * Double.parseDouble(stored)) {
+                        failures.add(sizeKey + " takes " + format(nanosPerByte) + " ns/B, baseline is " + stored);
+                    }
+                }
+            }
+        }
+
+        if (record) saveBaseline(baselinePath, measured);
+
+        for (String failure : failures) System.err.println("FAIL " + failure);
+        return failures.isEmpty();
+    }
+
+    /**
+     * Run every phase on the source a few times and keep the fastest time of each.
+     * @param source
+     * @return the samples of the scan, parse and print phases.
+     */
+    private static Sample[] measure(String source) {
+        int repeats = (int) Math.max(3, Math.min(10, (4L * 1024 * 1024) / source.length()));
+        Sample[] best = new Sample[PHASES.length];
+        for (int r = 0; r < repeats; r++) {
+            Object[] tokens = new Object[1];
+            Object[] expr = new Object[1];
+            @SuppressWarnings("unchecked")
+            Sample[] run = {
+                    phase(source.length(), () -> tokens[0] = new Scanner(source).scanTokens()),
+                    phase(source.length(), () -> expr[0] = new Parser((List<Token>) tokens[0]).parse()),
+                    phase(source.length(), () -> new AstPrinter().print((Expr) expr[0]))
+            };
+            for (int i = 0; i < run.length; i++) {
+                if (best[i] == null || run[i].nanos < best[i].nanos) best[i] = run[i];
+            }
+        }
+        Lox.hadError = false;
+        return best;
+    }
+
+    /**
+     * Time one phase, including and excluding collector pauses,
+     * and sample the heap it used on top of what was live before it started.
+     * @param bytes
+     * @param phase
+     * @return the sample.
+     */
+    private static Sample phase(long bytes, Supplier<?> phase) {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pools.add(pool);
+        }
+        System.gc();
+        long before = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            pool.resetPeakUsage();
+            before += pool.getUsage().getUsed();
+        }
+
+        long pauses = collectionMillis();
+        long start = System.nanoTime();
+        phase.get();
+        long nanos = System.nanoTime() - start;
+        long collectionNanos = Math.min(nanos - 1, (collectionMillis() - pauses) * 1_000_000);
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : pools) peak += pool.getPeakUsage().getUsed();
+        return new Sample(bytes, nanos, Math.max(0, collectionNanos), Math.max(0, peak - before));
+    }
+
+    /**
+     * The total time spent in garbage collection so far.
+     * @return the collection time in milliseconds.
+     */
+    private static long collectionMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Fit log(y) = a + b log(bytes) by least squares and return b.
+     * @param samples at least two, with positive values.
+     * @param y
+     * @return the growth exponent.
+     */
+    private static double exponent(List<Sample> samples, ToLongFunction<Sample> y) {
+        double sx = 0, sy = 0, sxx = 0, sxy = 0;
+        int n = 0;
+        for (Sample sample : samples) {
+            double lx = Math.log(sample.bytes);
+            double ly = Math.log(y.applyAsLong(sample));
+            sx += lx;
+            sy += ly;
+            sxx += lx * lx;
+            sxy += lx * ly;
+            n++;
+        }
+        return (n * sxy - sx * sy) / (n * sxx - sx * sx);
+    }
+
+    /**
+     * Below are the input generators. Each one returns a valid expression of roughly the requested size.
+     */
+
+    /**
+     * A balanced tree of additions: ((1 + 2) + (3 + 4)) ...
+     * @param bytes
+     * @param separator the whitespace between tokens.
+     */
+    private static String balanced(int bytes, String separator) {
+        StringBuilder builder = new StringBuilder(bytes + 16);
+        int leaves = Math.max(1, bytes / (4 + 2 * separator.length()));
+        balanced(builder, leaves, separator);
+        return builder.toString();
+    }
+
+    private static void balanced(StringBuilder builder, int leaves, String separator) {
+        if (leaves == 1) {
+            builder.append(leaves);
+            return;
+        }
+        builder.append('(');
+        balanced(builder, leaves / 2, separator);
+        builder.append(separator).append('+').append(separator);
+        balanced(builder, leaves - leaves / 2, separator);
+        builder.append(')');
+    }
+
+    /** Nested groups around a single literal: ((((1)))) */
+    private static String deep(int bytes) {
+        int depth = Math.max(1, bytes / 2);
+        return "(".repeat(depth) + "1" + ")".repeat(depth);
+    }
+
+    /** A single string literal. */
+    private static String longString(int bytes) {
+        return "\"" + "a".repeat(Math.max(0, bytes - 2)) + "\"";
+    }
+
+    /** A block comment and line comments before a literal. */
+    private static String longComment(int bytes) {
+        int half = Math.max(0, bytes / 2);
+        StringBuilder builder = new StringBuilder(bytes + 16);
+        builder.append("/*");
+        for (int i = 0; i < half; i++) builder.append(i % 64 == 63 ? '\n' : i % 7 == 0 ? '*' : 'c');
+        builder.append("*/\n");
+        while (builder.length() < bytes) builder.append("// comment * / text\n");
+        builder.append('1');
+        return builder.toString();
+    }
+
+    private static Properties loadBaseline(Path path) {
+        Properties properties = new Properties();
+        if (!Files.exists(path)) {
+            System.out.println("No baseline at " + path + ", only the growth curves are checked.");
+            return properties;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return properties;
+    }
+
+    private static void saveBaseline(Path path, Properties properties) {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            properties.store(out, "Nanoseconds per input byte, by shape, phase and input size");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+}
@@ -0,0 +1,74 @@
+package org.senyou.lox;
+
+/**
+ * Measure the scanners' throughput on comment-, string- and indentation-heavy sources.
+ * Run it with: gradle scanBenchmark
+ */
+class ScanBenchmark {
+    private static final int SIZE = 8 * 1024 * 1024;
+    private static final int RUNS = 10;
+
+    public static void main(String[] args) {
+        report("line comments", lineComments());
+        report("block comments", blockComments());
+        report("strings", strings());
+        report("indentation", indentation());
+    }
+
+    private static void report(String name, String source) {
+        System.out.printf("%-15s %8.1f MB/s  dfa %8.1f MB/s%n", name,
+                throughput(source, () -> new Scanner(source).scanTokens()),
+                throughput(source, () -> new DfaScanner(source).scanTokens()));
+    }
+
+    /**
+     * Scan the source a few times with one of the scanners and keep the fastest run.
+     * @param source
+     * @param scan
+     * @return the throughput in MB/s.
+     */
+    private static double throughput(String source, Runnable scan) {
+        for (int i = 0; i < 3; i++) scan.run();
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            scan.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return source.length() / (best / 1e9) / (1024 * 1024);
+    }
+
+    private static String lineComments() {
+        StringBuilder builder = new StringBuilder(SIZE + 128);
+        while (builder.length() < SIZE) {
+            builder.append("// A comment that explains what the next line computes, at some length.\n1 +\n");
+        }
+        return builder.append('1').toString();
+    }
+
+    private static String blockComments() {
+        StringBuilder builder = new StringBuilder(SIZE + 512);
+        while (builder.length() < SIZE) {
+            builder.append("/* A block comment * that spans\n   several lines / and mentions * stars\n")
+                    .append("   and slashes, like a license header would. */\n1 +\n");
+        }
+        return builder.append('1').toString();
+    }
+
+    private static String strings() {
+        StringBuilder builder = new StringBuilder(SIZE + 256);
+        while (builder.length() < SIZE) {
+            builder.append("\"A rather long string literal, the kind used for messages and templates.\" +\n");
+        }
+        return builder.append("\"\"").toString();
+    }
+
+    private static String indentation() {
+        StringBuilder builder = new StringBuilder(SIZE + 128);
+        while (builder.length() < SIZE) {
+            builder.append("                        1 +\n\t\t\t\t\t\t2 +\r\n");
+        }
+        return builder.append('1').toString();
+    }
+}
@@ -0,0 +1,60 @@
+package org.senyou.lox;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cross-check the table-driven scanner against the hand-written one.
+ * Both scan the same inputs, random ones and a few known tricky ones, and must produce the same tokens,
+ * with the same lexemes, literals and lines, and report the same errors.
+ */
+class ScannerDifferentialTest {
+    // The scanners decide on one or two characters at a time, so short inputs reach every pair of the alphabet
+    // and every word many times over.
+    private static final int RANDOM_INPUTS = 50_000;
+    private static final int MAX_PIECES = 24;
+    private static final String ALPHABET = "()[]{},.-+;*/!=<>\"\n\r\t 0123456789._aAzZ#@\u00e9";
+    private static final List<String> WORDS = List.of(
+            "and", "class", "else", "false", "for", "fun", "if", "nil", "or", "print", "return",
+            "super", "this", "true", "var", "while", "andy", "classes", "_x", "nil1", "/*", "*/", "//", "1.5", "1.");
+
+    private static final List<String> FIXED = List.of(
+            "", "1 + 2", "\"abc", "\"a\nb\"", "/* x", "/**/", "/*/", "/* * / */ 1", "/* ** */", "1.", ".5",
+            "1.2.3", "a//b\nc", "!=!==<=>=", "\"\"", "\u00e9\u00e9", "orchid or", "12abc", "/* a\n b */\n\"c\nd\" x");
+
+    @Test
+    void agreesOnTrickyInputs() {
+        for (String source : FIXED) assertSameScan(source);
+    }
+
+    @Test
+    void agreesOnRandomInputs() {
+        Random random = new Random(42);
+        for (int i = 0; i < RANDOM_INPUTS; i++) assertSameScan(randomSource(random));
+    }
+
+    private static void assertSameScan(String source) {
+        StringBuilder expected = new StringBuilder();
+        StringBuilder actual = new StringBuilder();
+        TestOutput.describe(new Scanner(source, null, TestOutput.diagnostics(expected)).scanTokens(), expected);
+        TestOutput.describe(new DfaScanner(source, null, TestOutput.diagnostics(actual)).scanTokens(), actual);
+        assertEquals(expected.toString(), actual.toString(), () -> "Input: " + source.replace("\n", "\\n"));
+    }
+
+    private static String randomSource(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int pieces = random.nextInt(MAX_PIECES);
+        for (int i = 0; i < pieces; i++) {
+            if (random.nextInt(4) == 0) {
+                builder.append(WORDS.get(random.nextInt(WORDS.size())));
+            } else {
+                builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,133 @@
+package org.senyou.lox;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Check the line numbers the scanner gives to tokens and errors when it skips over
+ * strings and comments with a vectorized search and counts their newlines afterwards,
+ * and when it skips whole runs of whitespace.
+ */
+class ScannerLinesTest {
+    private static final int RANDOM_INPUTS = 20_000;
+
+    @Test
+    void countsNewlinesInsideStrings() {
+        assertScan("\"a\nb\nc\" + 1", "STRING@3 PLUS@3 NUMBER@3 EOF@3", "");
+        assertScan("\"" + "x".repeat(100).concat("\n").repeat(50) + "\"\n1", "STRING@51 NUMBER@52 EOF@52", "");
+        assertScan("\"\n\"\n\"\n\"", "STRING@2 STRING@4 EOF@4", "");
+        assertScan("\"a\" \"b\n\" \"c\"\n\"d\"", "STRING@1 STRING@2 STRING@2 STRING@3 EOF@3", "");
+        assertScan("\"a\nb\"\n\n1", "STRING@2 NUMBER@4 EOF@4", "");
+    }
+
+    @Test
+    void countsNewlinesInsideBlockComments() {
+        assertScan("/* a\n\n b */ 1\n2", "NUMBER@3 NUMBER@4 EOF@4", "");
+        assertScan("/*" + "* comment /\n".repeat(200) + "*/1", "NUMBER@201 EOF@201", "");
+        assertScan("/*\r\n\r\n*/1", "NUMBER@3 EOF@3", "");
+        assertScan("/*\n*/\"\n\" 1", "STRING@3 NUMBER@3 EOF@3", "");
+        assertScan("// x\n\"a\nb\" /* c\n*/ 1", "STRING@3 NUMBER@4 EOF@4", "");
+    }
+
+    @Test
+    void reportsUnterminatedStringsOnTheLastLine() {
+        assertScan("1\n\"abc\n\ndef", "NUMBER@1 EOF@4", "[line 4] Error: Unterminated string.");
+        assertScan("\"" + "long line\n".repeat(100), "EOF@101", "[line 101] Error: Unterminated string.");
+        assertScan("\"a\nb\" \"c\n", "STRING@2 EOF@3", "[line 3] Error: Unterminated string.");
+    }
+
+    @Test
+    void reportsUnterminatedCommentsOnTheLastLine() {
+        assertScan("1 /* a\n\n\n", "NUMBER@1 EOF@4", "[line 4] Error: Unterminated comment block");
+        assertScan("/*\n*", "EOF@2", "[line 2] Error: Unterminated comment block");
+        assertScan("\"a\nb\" /* */ /*\n\n*", "STRING@2 EOF@4", "[line 4] Error: Unterminated comment block");
+    }
+
+    @Test
+    void skipsWhitespaceRunsOfAnyLength() {
+        for (int length = 1; length <= 20; length++) {
+            String run = " \t\r".repeat(length).substring(0, length);
+            assertScan("1" + run + "2\n" + run + "3" + run, "NUMBER@1 NUMBER@1 NUMBER@2 EOF@2", "");
+        }
+    }
+
+    @Test
+    void agreesWithCharacterByCharacterCounting() {
+        Random random = new Random(42);
+        for (int i = 0; i < RANDOM_INPUTS; i++) {
+            String source = randomSource(random);
+            StringBuilder expected = new StringBuilder();
+            StringBuilder actual = new StringBuilder();
+            List<Token> tokens = new Scanner(source, null, TestOutput.diagnostics(actual)).scanTokens();
+            TestOutput.describe(tokens, actual);
+            TestOutput.describe(
+                    new DfaScanner(source, null, TestOutput.diagnostics(expected)).scanTokens(), expected);
+
+            String input = "Input: " + source.replace("\n", "\\n");
+            assertEquals(expected.toString(), actual.toString(), input);
+            long newlines = source.chars().filter(c -> c == '\n').count();
+            assertEquals(newlines + 1, tokens.get(tokens.size() - 1).line(), input);
+        }
+    }
+
+    /**
+     * Scan the source and compare the types and lines of the tokens, and the errors.
+     * @param source
+     * @param tokens the tokens, as TYPE@line separated by spaces.
+     * @param errors the errors, one per line.
+     */
+    private static void assertScan(String source, String tokens, String errors) {
+        StringBuilder reported = new StringBuilder();
+        StringBuilder scanned = new StringBuilder();
+        for (Token token : new Scanner(source, null, TestOutput.diagnostics(reported)).scanTokens()) {
+            if (!scanned.isEmpty()) scanned.append(' ');
+            scanned.append(token.type()).append('@').append(token.line());
+        }
+        String input = "Input: " + source.replace("\n", "\\n");
+        assertEquals(tokens, scanned.toString(), input);
+        assertEquals(errors, reported.toString().strip(), input);
+    }
+
+    /**
+     * Long strings, comments and whitespace runs full of newlines, between short tokens, possibly left open at the end.
+     */
+    private static String randomSource(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int pieces = random.nextInt(12);
+        for (int i = 0; i < pieces; i++) {
+            switch (random.nextInt(7)) {
+                case 0 -> builder.append('"').append(randomText(random, "\"")).append('"');
+                case 1 -> builder.append("/*").append(randomText(random, "/")).append("*/");
+                case 2 -> builder.append("//").append(randomText(random, "\n")).append('\n');
+                case 3 -> builder.append("\n".repeat(1 + random.nextInt(3)));
+                case 4 -> builder.append(random.nextInt(100)).append(' ');
+                case 5 -> builder.append(randomText(random, "\nab*/"));
+                default -> builder.append(" + ");
+            }
+        }
+        switch (random.nextInt(4)) {
+            case 0 -> builder.append('"').append(randomText(random, "\""));
+            case 1 -> builder.append("/*").append(randomText(random, "/"));
+            default -> { }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Text of up to a few hundred characters, mostly newlines and letters, without the given characters.
+     */
+    private static String randomText(Random random, String excluded) {
+        String alphabet = "\n\n\n\nab *\r\t/";
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(random.nextBoolean() ? 8 : 400);
+        while (builder.length() < length) {
+            char c = alphabet.charAt(random.nextInt(alphabet.length()));
+            if (excluded.indexOf(c) < 0) builder.append(c);
+        }
+        return builder.toString();
+    }
+}
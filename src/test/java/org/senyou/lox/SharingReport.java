@@ -0,0 +1,69 @@
+package org.senyou.lox;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Report how much a corpus shares when it is parsed through the hash-consing factory.
+ * Every file gets its own factory; directories are searched for .lox files.
+ * Run it with: gradle sharingReport -Pfiles=path[,path...]
+ */
+class SharingReport {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: sharing_report <file or directory>...");
+            System.exit(64);
+        }
+
+        long requested = 0;
+        long distinct = 0;
+        for (Path path : files(args)) {
+            String source = new String(Files.readAllBytes(path), Charset.defaultCharset());
+            boolean[] failed = {false};
+            Diagnostics diagnostics = (line, where, message) -> failed[0] = true;
+            HashConsingExprFactory factory = new HashConsingExprFactory();
+            new Parser(new Scanner(source, null, diagnostics).scanTokens(), factory, null, diagnostics).parse();
+            if (failed[0]) {
+                System.out.println(path + ": invalid, skipped");
+                continue;
+            }
+
+            report(path.toString(), factory.requested(), factory.distinct(), factory.sharingRatio());
+            requested += factory.requested();
+            distinct += factory.distinct();
+        }
+        report("total", requested, distinct, HashConsingExprFactory.sharingRatio(requested, distinct));
+    }
+
+    private static void report(String name, long requested, long distinct, double ratio) {
+        System.out.printf("%-40s %,12d requested %,12d distinct %6.1f %% shared%n", name, requested, distinct, 100 * ratio);
+    }
+
+    /**
+     * Expand the arguments into files, in a stable order.
+     * @param args
+     * @return the files to parse.
+     * @throws IOException
+     */
+    private static List<Path> files(String[] args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            if (!Files.isDirectory(path)) {
+                files.add(path);
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(path)) {
+                walk.filter(file -> file.toString().endsWith(".lox")).sorted().forEach(files::add);
+            }
+        }
+        return files;
+    }
+}
@@ -0,0 +1,76 @@
+package org.senyou.lox;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cross-check the syntax checker against the scanner and the parser.
+ * For every input, the checker must report the same errors, in the same order, as scanning then parsing it,
+ * and say the input is valid exactly when nothing was reported. One checker is reused for all inputs.
+ */
+class SyntaxCheckerDifferentialTest {
+    // The parser gives up at its first syntax error, so what matters is the token sequence up to it:
+    // fewer inputs than the scanner needs, but long enough to nest groups and mix operators.
+    private static final int RANDOM_INPUTS = 20_000;
+    private static final int MAX_PIECES = 40;
+    // Deep enough to nest well past the random inputs, shallow enough for the recursive parser on a default stack.
+    private static final int DEPTH = 200;
+    private static final List<String> PIECES = List.of(
+            "(", ")", "(", ")", "-", "+", "*", "/", "!", "!=", "==", "<", "<=", ">", ">=", "=",
+            "1", "23", "4.5", "6.", ".7", "\"s\"", "\"", "nil", "true", "false", "and", "x", "var",
+            " ", " ", " ", "\n", "\t", "// c\n", "/* c */", "/* c\n", "@", "#", ";", ",", "{", "}");
+
+    private static final List<String> FIXED = List.of(
+            "", "1", "1 + 2 * 3", "(1", "1)", "()", "1 +", "+ 1", "!!true", "-(-1)", "1 2", "\"abc",
+            "(\"a\" + \"b\") == \"ab\"", "@", "1 + @", "@ 1 +", "/* x\n\n", "\"a\nb\" +", "(\n(\n1\n)",
+            "x", "var", "1 < 2 <= 3 > 4 >= 5 != 6 == 7", "((((((((((1))))))))))", "(((((((((1", "\"\"\"");
+
+    private final StringBuilder checked = new StringBuilder();
+    private final SyntaxChecker checker = new SyntaxChecker(TestOutput.diagnostics(checked));
+
+    @Test
+    void agreesOnTrickyInputs() {
+        for (String source : FIXED) assertSameErrors(source);
+    }
+
+    @Test
+    void agreesOnDeeplyNestedInputs() {
+        String open = "(".repeat(DEPTH);
+        String close = ")".repeat(DEPTH);
+        assertSameErrors(open + "1" + close);
+        assertSameErrors(open + "1" + close.substring(1));
+        assertSameErrors(open + "1" + close + ")");
+        assertSameErrors("-!".repeat(DEPTH) + "1");
+        assertSameErrors(open + "1 +" + close);
+        assertSameErrors("1" + " + (2".repeat(DEPTH) + " *" + close);
+    }
+
+    @Test
+    void agreesOnRandomInputs() {
+        Random random = new Random(29);
+        for (int i = 0; i < RANDOM_INPUTS; i++) assertSameErrors(randomSource(random));
+    }
+
+    private void assertSameErrors(String source) {
+        StringBuilder expected = new StringBuilder();
+        Diagnostics diagnostics = TestOutput.diagnostics(expected);
+        new Parser(new Scanner(source, null, diagnostics).scanTokens(), new ExprFactory(), null, diagnostics).parse();
+
+        checked.setLength(0);
+        boolean valid = checker.check(source);
+        String input = "Input: " + source.replace("\n", "\\n");
+        assertEquals(expected.toString(), checked.toString(), input);
+        assertEquals(expected.isEmpty(), valid, input);
+    }
+
+    private static String randomSource(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int pieces = random.nextInt(MAX_PIECES);
+        for (int i = 0; i < pieces; i++) builder.append(PIECES.get(random.nextInt(PIECES.size())));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package org.senyou.lox;
+
+import java.util.List;
+
+/**
+ * Formats what scanners, parsers and checkers produce as text, so tests can compare runs with a single assertion.
+ */
+final class TestOutput {
+    private TestOutput() {}
+
+    /**
+     * Collect the reported errors in the order they are reported, formatted as {@link Lox#report} prints them.
+     * @param errors
+     * @return the diagnostics.
+     */
+    static Diagnostics diagnostics(StringBuilder errors) {
+        return (line, where, message) ->
+                errors.append("[line ").append(line).append("] Error").append(where).append(": ").append(message).append('\n');
+    }
+
+    /**
+     * Describe the tokens after the errors, with the line of each token.
+     * @param tokens
+     * @param builder
+     */
+    static void describe(List<Token> tokens, StringBuilder builder) {
+        for (Token token : tokens) {
+            builder.append(token).append(" @").append(token.line()).append(" | ");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.senyou.lox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Check the types the inference pass gives, the operations it reports as always failing,
+ * the subtrees it marks numeric, and how jlox exits with and without it.
+ */
+class TypeInferenceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void reportsOperationsThatAlwaysFail() {
+        assertErrors("-\"a\"", "[line 1] Error at '-': Operand must be a number.");
+        assertErrors("1 + \"a\"", "[line 1] Error at '+': Operands must be two numbers or two strings.");
+        assertErrors("\"a\" < \"b\"", "[line 1] Error at '<': Operands must be numbers.");
+        assertErrors("nil + nil", "[line 1] Error at '+': Operands must be two numbers or two strings.");
+        assertErrors("1 +\n(2 * true)", "[line 2] Error at '*': Operands must be numbers.");
+    }
+
+    @Test
+    void acceptsOperationsThatCanSucceed() {
+        assertErrors("\"a\" + \"b\" == \"ab\"", "");
+        assertErrors("1 < 2 == !nil", "");
+        assertErrors("-(1 + 2) * 3 / 4", "");
+        assertErrors("\"a\" == 1", "");
+    }
+
+    @Test
+    void infersTypes() {
+        assertEquals(TypeInference.Type.NUMBER, infer("-(1 + 2)").type);
+        assertEquals(TypeInference.Type.STRING, infer("\"a\" + \"b\"").type);
+        assertEquals(TypeInference.Type.BOOL, infer("1 < 2").type);
+        assertEquals(TypeInference.Type.BOOL, infer("!\"a\"").type);
+        assertEquals(TypeInference.Type.NIL, infer("(nil)").type);
+    }
+
+    @Test
+    void marksOnlyArithmeticOverNumbersNumeric() {
+        Expr.Binary comparison = (Expr.Binary) infer("(1 + 2) == (\"a\" + \"b\")");
+        assertFalse(comparison.numeric);
+        assertTrue(((Expr.Grouping) comparison.left).numeric);
+        assertTrue(((Expr.Grouping) comparison.left).expression.numeric);
+        assertFalse(((Expr.Grouping) comparison.right).expression.numeric);
+
+        Expr.Binary product = (Expr.Binary) infer("-(1 + 2) * 3");
+        assertTrue(product.numeric);
+        assertTrue(product.left.numeric);
+
+        Expr.Unary not = (Expr.Unary) infer("!(1 - 2)");
+        assertFalse(not.numeric);
+        assertTrue(not.right.numeric);
+
+        Expr.Binary less = (Expr.Binary) infer("(1 * 2) < 3");
+        assertFalse(less.numeric);
+        assertTrue(less.left.numeric);
+
+        // Operands that are numbers when they succeed, but can fail: the type is a number, the node is not numeric.
+        Expr.Binary sum = (Expr.Binary) infer("1 + -\"a\"");
+        assertEquals(TypeInference.Type.NUMBER, sum.type);
+        assertEquals(TypeInference.Type.NUMBER, sum.right.type);
+        assertFalse(sum.numeric);
+        assertFalse(sum.right.numeric);
+        assertFalse(infer("(1 < 2) * 3").numeric);
+    }
+
+    @Test
+    void evaluatesNumericSubtreesLikeBoxedOnes() {
+        String source = "(1 + 2) * -(3 - 4.5) / (7 - 2) == 0.9";
+        Interpreter interpreter = new Interpreter();
+        Object boxed = interpreter.evaluateTree(parse(source));
+        Object unboxed = interpreter.evaluateTree(infer(source));
+        assertEquals(boxed, unboxed);
+        assertEquals(3.0 * 1.5 / 5, interpreter.evaluateTree(((Expr.Binary) infer(source)).left));
+    }
+
+    @Test
+    void exitsWith65WhenInferenceFindsTheErrorAnd70WhenEvaluationDoes() throws Exception {
+        assertExit("-\"a\"", true, 65);
+        assertExit("-\"a\"", false, 70);
+        assertExit("\"a\" < \"b\"", true, 65);
+        assertExit("\"a\" < \"b\"", false, 70);
+        assertExit("1 +", true, 65);
+        assertExit("1 + 2", true, 0);
+    }
+
+    private static Expr parse(String source) {
+        return new Parser(new Scanner(source).scanTokens()).parse();
+    }
+
+    private static Expr infer(String source) {
+        Expr expression = parse(source);
+        new TypeInference((line, where, message) -> { }).infer(expression);
+        return expression;
+    }
+
+    private static void assertErrors(String source, String errors) {
+        StringBuilder reported = new StringBuilder();
+        new TypeInference(TestOutput.diagnostics(reported)).infer(parse(source));
+        assertEquals(errors, reported.toString().strip(), source);
+    }
+
+    /**
+     * Run jlox on the source in a JVM of its own and check its exit code.
+     * @param source
+     * @param infer whether to run with -Dlox.infer=true.
+     * @param code
+     */
+    private void assertExit(String source, boolean infer, int code) throws IOException, InterruptedException {
+        Path script = Files.createTempFile(directory, "script", ".lox");
+        Files.writeString(script, source);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-Dlox.infer=" + infer, "-cp", System.getProperty("java.class.path"),
+                "org.senyou.lox.Lox", script.toString())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        assertEquals(code, process.waitFor(), source + (infer ? " with inference" : " without inference"));
+    }
+}